@@ -0,0 +1,72 @@
+/**
+ * The cost of debouncing one edge of a bouncing contact, feeding the sensor directly
+ * so the gpio layer isn't measured. The edges have simulated times, so the sensor is
+ * settled here wherever its debounce time would have run out before the next edge
+ */
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sensors.ContactSensor;
+import simulation.BouncePattern;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DebounceBenchmark {
+	
+	private static final long gap = 50_000_000L;//The time between passes through the pattern (ns)
+	private static final long debounce = ContactSensor.defaultDebounce;
+	
+	@Param({"0", "8"})
+	public int maxBounces;//The most bounces after each edge
+	
+	private ContactSensor sensor;
+	private BouncePattern pattern;
+	
+	private int edge;
+	private long start;//The start time of the current pass through the pattern (ns)
+	private long previous;//The time of the previous edge (ns)
+	
+	@Setup
+	public void setup(){
+		sensor = new ContactSensor("benchmark", debounce, true);//BouncePattern is for a switch to ground, so low is pressed
+		pattern = new BouncePattern(1000, maxBounces, 200_000L, 50_000_000L, 50_000_000L, 1);
+	}
+	
+	@Benchmark
+	public int edge(){
+		long time = start + pattern.getTime(edge);
+		
+		if(time - previous >= debounce){
+			sensor.settle(previous + debounce);
+		}
+		
+		sensor.edge(pattern.getLevel(edge), time);
+		previous = time;
+		
+		if(++edge == pattern.size()){
+			start += pattern.getTime(edge - 1) + gap;
+			edge = 0;
+		}
+		
+		return sensor.getPresses();
+	}
+
+}
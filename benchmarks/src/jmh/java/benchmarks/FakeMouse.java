@@ -0,0 +1,26 @@
+/**
+ * A mouse that only adds up where it has been told to go, so the pipeline can run without a screen
+ */
+
+package benchmarks;
+
+import io.MouseSink;
+
+public class FakeMouse implements MouseSink {
+	
+	public int x;//The total distance moved right
+	public int y;//The total distance moved down
+	public int clicks;//The total number of clicks
+	
+	@Override
+	public void offsetMouse(int dx, int dy){
+		x += dx;
+		y += dy;
+	}
+	
+	@Override
+	public void click(int buttons, int clicks){
+		this.clicks += clicks;
+	}
+
+}
@@ -0,0 +1,121 @@
+/**
+ * The cost of filtering one sample of every channel, for each filter and for a typical
+ * chain, with the 3 channels of one sensor and the 96 of 32 sensors
+ */
+
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import filters.Biquad;
+import filters.Filter;
+import filters.FilterBank;
+import filters.FilterChain;
+import filters.KalmanFilter;
+import filters.KalmanFilter3;
+import filters.MedianFilter;
+import filters.MovingAverage;
+import filters.OneEuroFilter;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilterBenchmark {
+	
+	private static final int rows = 1024;//The number of noisy samples cycled through, a power of two
+	private static final long period = 1_000_000;//The time between samples (ns)
+	
+	@Param({"BIQUAD", "MOVING_AVERAGE", "MEDIAN", "ONE_EURO", "KALMAN", "KALMAN3", "CHAIN"})
+	public String filter;
+	
+	@Param({"3", "96"})
+	public int channels;
+	
+	private FilterBank bank;
+	private float[][] input;//Noisy samples for every channel
+	private float[] sample;//The sample being filtered
+	
+	private int row;
+	private long time;
+	
+	@Setup
+	public void setup(){
+		bank = filter.equals("KALMAN3") ? kalman3(channels) : new FilterBank(channels, factory(filter));
+		
+		Random random = new Random(1);
+		input = new float[rows][channels];
+		for(int r = 0; r < rows; r++){
+			for(int c = 0; c < channels; c++){
+				input[r][c] = (float)(Math.sin(r * 0.01 + c) + 0.05 * random.nextGaussian());
+			}
+		}
+		
+		sample = new float[channels];
+	}
+	
+	/**
+	 * One KalmanFilter3 for every 3 channels, as each sensor would have
+	 */
+	private static FilterBank kalman3(int channels){
+		Filter[] axes = new Filter[channels];
+		KalmanFilter3 kalman = null;
+		
+		for(int i = 0; i < channels; i++){
+			if(i % 3 == 0){
+				kalman = new KalmanFilter3(1e-3f, 1e-2f);
+			}
+			
+			axes[i] = kalman.getAxis(i % 3);
+		}
+		
+		return new FilterBank(axes);
+	}
+	
+	private static Supplier<Filter> factory(String filter){
+		switch(filter){
+		case "BIQUAD":
+			return () -> Biquad.lowPass(1000, 50, Math.sqrt(0.5));
+		case "MOVING_AVERAGE":
+			return () -> new MovingAverage(8);
+		case "MEDIAN":
+			return () -> new MedianFilter(5);
+		case "ONE_EURO":
+			return () -> new OneEuroFilter(1.0, 0.5, 1.0);
+		case "KALMAN":
+			return () -> new KalmanFilter(1e-3f, 1e-2f);
+		case "CHAIN"://Spikes removed, then smoothed
+			return () -> new FilterChain(new MedianFilter(5), Biquad.lowPass(1000, 50, Math.sqrt(0.5)));
+		default:
+			throw new IllegalArgumentException(filter);
+		}
+	}
+	
+	@Benchmark
+	public float filterSample(){
+		System.arraycopy(input[row], 0, sample, 0, channels);
+		row = (row + 1) & (rows - 1);
+		time += period;
+		
+		bank.filter(sample, time);
+		
+		return sample[0];
+	}
+
+}
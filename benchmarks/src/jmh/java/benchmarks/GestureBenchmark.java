@@ -0,0 +1,68 @@
+/**
+ * The cost of running one sample through the gesture detector, over the 1kHz
+ * GestureRecording with taps, a double tap, a shake and a fall in it. The number of
+ * gestures found and their mean detection latency are printed at the end of each trial
+ */
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import gestures.GestureDetector;
+import simulation.GestureRecording;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GestureBenchmark {
+	
+	private final GestureDetector detector = new GestureDetector();
+	private final GestureRecording recording = new GestureRecording();
+	
+	private int sample;
+	private long lap;//The start time of the current pass through the recording (ns)
+	
+	private long gestures;//The number of gestures found
+	private long latency;//Their total detection latency (ns)
+	
+	@Setup
+	public void setup(){
+		detector.addListener(event -> {
+			gestures++;
+			latency += event.getLatency();
+		});
+	}
+	
+	@TearDown
+	public void report(){
+		System.out.println(gestures + " gestures, mean latency " + (gestures == 0 ? 0 : latency / gestures / 1_000_000) + "ms");
+	}
+	
+	@Benchmark
+	public long process(){
+		detector.process(recording.getX(sample), recording.getY(sample), recording.getZ(sample), lap + sample * GestureRecording.period);
+		
+		if(++sample == GestureRecording.samples){
+			sample = 0;
+			lap += GestureRecording.samples * GestureRecording.period;
+		}
+		
+		return gestures;
+	}
+
+}
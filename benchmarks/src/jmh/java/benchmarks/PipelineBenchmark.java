@@ -0,0 +1,141 @@
+/**
+ * The whole path from the sensors to the mouse: simulated mpu6050s fill their FIFO
+ * buffers, then each is polled (read, decode, filter, gestures, orientation) and its
+ * tilt is mapped onto a fake mouse. One operation is one polling frame, so for the
+ * robot to keep up a profile needs more than SensorController.refreshRate frames/s.
+ * With a byteTime of 0 the bus has no transfer time, so only the processing is measured.
+ * With the fast mode byte time every transaction takes as long as it would on a 400kHz
+ * bus, shared by all the sensors. That bus carries about 40kB/s, while each sensor
+ * sends 6 bytes per sample, so profiles beyond about 6000 samples/s (e.g. 8 sensors
+ * at 1kHz) can't keep up however fast the processing is
+ */
+
+package benchmarks;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import filters.FilterBank;
+import filters.OneEuroFilter;
+import gestures.GestureDetector;
+import io.GestureMouseBinding;
+import io.TiltMapping;
+import sensors.MPU6050;
+import sensors.SensorController;
+import simulation.SimulatedI2CBus;
+import simulation.SimulatedI2CDevice;
+import toolbox.Precision;
+
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PipelineBenchmark {
+	
+	private static final int waveformSize = 4096;//The number of samples in the recorded movement, a power of two
+	
+	@Param({"1", "8", "32"})
+	public int sensors;//The number of mpu6050s
+	
+	@Param({"100", "250", "500", "1000"})
+	public int rate;//The sample rate of each sensor (Hz)
+	
+	@Param({"0", "" + SimulatedI2CBus.fastModeByteTime})
+	public long byteTime;//The time each byte takes on the bus (ns)
+	
+	private SimulatedI2CDevice[] devices;
+	private MPU6050[] mpus;
+	
+	private final TiltMapping mapping = new TiltMapping(10);
+	private final FakeMouse mouse = new FakeMouse();
+	
+	private short[] waveform;//x, y, z of a slowly tilting sensor with noise, as raw readings
+	private int samplesPerFrame;//The samples each sensor takes between polls
+	private int cursor;//The position in the waveform
+	
+	@Setup
+	public void setup() throws IOException {
+		samplesPerFrame = Math.max(1, (int)(rate / SensorController.refreshRate));
+		
+		Random random = new Random(1);
+		waveform = new short[waveformSize * 3];
+		for(int i = 0; i < waveformSize; i++){
+			double tilt = 0.5 * Math.sin(2 * Math.PI * i / waveformSize);
+			
+			waveform[3 * i] = (short)(16384 * Math.sin(tilt) + 80 * random.nextGaussian());
+			waveform[3 * i + 1] = (short)(80 * random.nextGaussian());
+			waveform[3 * i + 2] = (short)(16384 * Math.cos(tilt) + 80 * random.nextGaussian());
+		}
+		
+		SimulatedI2CBus bus = new SimulatedI2CBus(1, byteTime);
+		devices = new SimulatedI2CDevice[sensors];
+		mpus = new MPU6050[sensors];
+		
+		for(int s = 0; s < sensors; s++){
+			int address = 0x08 + s;
+			
+			devices[s] = bus.getSimulatedDevice(address);
+			
+			MPU6050 mpu = new MPU6050(bus, address, (short)0, (short)0, (short)0);
+			mpu.enableFifo();
+			mpu.setFilter(new FilterBank(3, () -> new OneEuroFilter(1.0, 0.5, 1.0)));
+			mpu.setPrecision(Precision.POLYNOMIAL);
+			
+			GestureDetector gestures = new GestureDetector();
+			gestures.addListener(new GestureMouseBinding(mouse));
+			mpu.setGestureDetector(gestures);
+			
+			mpus[s] = mpu;
+		}
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public int frame(){
+		return pollAll();
+	}
+	
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int frameLatency(){
+		return pollAll();
+	}
+	
+	/**
+	 * Fills each FIFO with a frame of samples, then polls every sensor and moves the mouse
+	 */
+	private int pollAll(){
+		for(int s = 0; s < sensors; s++){
+			SimulatedI2CDevice device = devices[s];
+			
+			for(int i = 0; i < samplesPerFrame; i++){
+				int sample = 3 * ((cursor + i + s * 64) & (waveformSize - 1));
+				device.pushFifo(waveform[sample], waveform[sample + 1], waveform[sample + 2]);
+			}
+			
+			MPU6050 mpu = mpus[s];
+			mpu.poll();
+			mapping.move(mpu.getAlpha(), mpu.getBeta(), mouse);
+		}
+		
+		cursor += samplesPerFrame;
+		
+		return mouse.x + mouse.y;
+	}
+
+}
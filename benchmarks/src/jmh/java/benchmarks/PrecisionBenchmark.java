@@ -0,0 +1,84 @@
+/**
+ * The cost of finding the orientation of one sample in each precision mode. The
+ * largest difference from EXACT over a million random directions is printed during
+ * setup, to check the documented accuracy alongside the speed
+ */
+
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import toolbox.Precision;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrecisionBenchmark {
+	
+	private static final int samples = 1024;//The number of accelerations cycled through, a power of two
+	
+	@Param({"EXACT", "TABLE", "POLYNOMIAL"})
+	public Precision precision;
+	
+	private float[] accelerations;//x, y, z of each sample (g)
+	private int sample;
+	
+	@Setup
+	public void setup(){
+		Random random = new Random(1);
+		
+		accelerations = new float[samples * 3];
+		for(int i = 0; i < accelerations.length; i++){
+			accelerations[i] = (float)random.nextGaussian();
+		}
+		
+		double error = 0;
+		for(int i = 0; i < 1_000_000; i++){
+			float x = (float)random.nextGaussian(), y = (float)random.nextGaussian(), z = (float)random.nextGaussian();
+			
+			error = Math.max(error, Math.abs(rotation(precision, x, x, y, z) - rotation(Precision.EXACT, x, x, y, z)));
+			error = Math.max(error, Math.abs(rotation(precision, y, x, y, z) - rotation(Precision.EXACT, y, x, y, z)));
+			error = Math.max(error, Math.abs(rotation(precision, z, x, y, z) - rotation(Precision.EXACT, z, x, y, z)));
+		}
+		
+		System.out.println(precision + ": largest orientation error " + error + " rad");
+	}
+	
+	/**
+	 * The rotation about one axis, as the mpu6050 finds it
+	 */
+	private static double rotation(Precision precision, float axis, float x, float y, float z){
+		return precision.acos(axis * precision.invSqrt(x * x + y * y + z * z));
+	}
+	
+	/**
+	 * All three rotations, sharing the inverse length as the mpu6050 does
+	 */
+	@Benchmark
+	public double orientation(){
+		int i = 3 * sample;
+		sample = (sample + 1) & (samples - 1);
+		
+		float x = accelerations[i], y = accelerations[i + 1], z = accelerations[i + 2];
+		double inverse = precision.invSqrt(x * x + y * y + z * z);
+		
+		return precision.acos(x * inverse) + precision.acos(y * inverse) + precision.acos(z * inverse);
+	}
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Bringing up 32 mpu6050s (configuring each from an unknown state) and reapplying an
+ * unchanged configuration to them, with the bus free and at 400kHz
+ */
+
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sensors.MPU6050;
+import sensors.RegisterMap;
+import simulation.SimulatedI2CBus;
+import simulation.SimulatedI2CDevice;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegisterMapBenchmark {
+	
+	private static final int sensors = 32;
+	
+	@Param({"0", "22500"})
+	public long byteTime;//The time each byte takes on the bus (ns), 22500 is 400kHz
+	
+	private SimulatedI2CDevice[] devices;
+	private RegisterMap[] maps;//Maps that already hold the configuration
+	
+	@Setup
+	public void setup() throws IOException {
+		SimulatedI2CBus bus = new SimulatedI2CBus(1, byteTime);
+		
+		devices = new SimulatedI2CDevice[sensors];
+		maps = new RegisterMap[sensors];
+		
+		for(int s = 0; s < sensors; s++){
+			devices[s] = bus.getSimulatedDevice(0x08 + s);
+			
+			maps[s] = MPU6050.createRegisterMap();
+			MPU6050.stageConfiguration(maps[s], false);
+			maps[s].commit(devices[s]);
+		}
+	}
+	
+	@Benchmark
+	public int bringUp() throws IOException {
+		int transactions = 0;
+		
+		for(int s = 0; s < sensors; s++){
+			RegisterMap map = MPU6050.createRegisterMap();
+			MPU6050.stageConfiguration(map, false);
+			transactions += map.commit(devices[s]);
+		}
+		
+		return transactions;
+	}
+	
+	@Benchmark
+	public int reconfigure() throws IOException {
+		int transactions = 0;
+		
+		for(int s = 0; s < sensors; s++){
+			MPU6050.stageConfiguration(maps[s], false);
+			transactions += maps[s].commit(devices[s]);
+		}
+		
+		return transactions;
+	}
+
+}
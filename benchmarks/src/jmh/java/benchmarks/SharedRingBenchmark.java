@@ -0,0 +1,174 @@
+/**
+ * Measures the throughput and latency of the shared sample ring between separate
+ * processes. The writer (this process) starts the readers as new JVMs, publishes
+ * samples stamped with the time they were written, and each reader reports how long
+ * samples took to reach it, using the CLOCK_MONOTONIC time shared by all processes.
+ * The ring is a new temporary file, deleted once every reader has exited.
+ *
+ * It isn't a JMH benchmark, since the readers are separate processes. Build the jar with
+ * gradle :benchmarks:jmhJar and run
+ * java -cp benchmarks/build/libs/benchmarks-jmh.jar benchmarks.SharedRingBenchmark [samples] [readers] [rate in Hz, 0 for as fast as possible]
+ */
+
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import ipc.Sample;
+import ipc.SharedSampleReader;
+import ipc.SharedSampleRing;
+
+public class SharedRingBenchmark {
+
+	private static final int slots = 4096;//The size of the ring
+	private static final long readerTimeout = 60_000_000_000L;//How long a reader waits for all the samples (ns)
+
+	public static void main(String[] args) throws Exception {
+		if(args.length > 0 && args[0].equals("--reader")){
+			read(args[1], Long.parseLong(args[2]));
+			return;
+		}
+
+		long samples = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+		int readers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+
+		File shm = new File("/dev/shm");
+		File file = File.createTempFile("pi-robotics-bench", ".ring", shm.isDirectory() ? shm : null);
+		String path = file.getPath();
+
+		SharedSampleRing ring = new SharedSampleRing(path, slots);
+		List<Process> processes = new ArrayList<Process>();
+
+		try {
+			run(ring, path, samples, readers, rate, processes);
+		} finally {
+			//Only delete the ring once no reader can still have it mapped
+			for(Process process : processes){
+				process.destroy();
+				process.waitFor();
+			}
+
+			ring.close();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Starts the readers, publishes the samples and prints what every reader reports
+	 */
+	private static void run(SharedSampleRing ring, String path, long samples, int readers, double rate, List<Process> processes) throws IOException, InterruptedException {
+		//Start the readers and wait until they have mapped the ring
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		List<BufferedReader> outputs = new ArrayList<BufferedReader>();
+
+		for(int i = 0; i < readers; i++){
+			Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+					SharedRingBenchmark.class.getName(), "--reader", path, Long.toString(samples))
+					.redirectErrorStream(true).start();
+			processes.add(process);
+
+			BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+			String line = output.readLine();
+			if(!"ready".equals(line)){
+				throw new IOException("Reader failed to start: " + line);
+			}
+
+			outputs.add(output);
+		}
+
+		//Publish the samples
+		long period = rate > 0 ? (long)(1e9 / rate) : 0;
+		long start = System.nanoTime();
+
+		for(long n = 0; n < samples; n++){
+			if(period > 0){
+				long due = start + n * period;
+				while(System.nanoTime() < due);
+			}
+
+			float v = n;
+			ring.publish((int)(n & 7), System.nanoTime(), v, v, v, v, v, v);
+		}
+
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("Writer: " + samples + " samples in " + (elapsed / 1e6) + "ms ("
+				+ (long)(samples / (elapsed / 1e9)) + " samples/s, " + (elapsed / samples) + "ns per sample)");
+
+		for(int i = 0; i < readers; i++){
+			String line;
+			while((line = outputs.get(i).readLine()) != null){
+				System.out.println("Reader " + i + ": " + line);
+			}
+
+			processes.get(i).waitFor();
+		}
+	}
+
+	/**
+	 * Reads every sample it can, then prints the throughput and latency percentiles
+	 */
+	private static void read(String path, long samples) throws IOException {
+		SharedSampleReader reader = new SharedSampleReader(path);
+		Sample sample = new Sample();
+
+		long[] latencies = new long[(int)Math.min(samples, Integer.MAX_VALUE - 8)];
+		int count = 0;
+
+		System.out.println("ready");
+		System.out.flush();
+
+		long first = 0, last = 0;
+		long deadline = System.nanoTime() + readerTimeout;
+
+		while(count + reader.getLost() < samples){
+			if(!reader.read(sample)){
+				if(System.nanoTime() > deadline){
+					break;
+				}
+
+				continue;
+			}
+
+			long now = System.nanoTime();
+			if(count == 0){
+				first = now;
+			}
+			last = now;
+
+			if(count < latencies.length){
+				latencies[count] = now - sample.timestamp;
+			}
+			count++;
+		}
+
+		Arrays.sort(latencies, 0, Math.min(count, latencies.length));
+		int n = Math.min(count, latencies.length);
+
+		double seconds = Math.max(last - first, 1) / 1e9;
+
+		System.out.println("read " + count + ", lost " + reader.getLost() + ", " + (long)(count / seconds) + " samples/s, latency"
+				+ " p50 " + percentile(latencies, n, 0.50) + "ns"
+				+ " p99 " + percentile(latencies, n, 0.99) + "ns"
+				+ " p99.9 " + percentile(latencies, n, 0.999) + "ns"
+				+ " max " + (n > 0 ? latencies[n - 1] : 0) + "ns");
+
+		reader.close();
+	}
+
+	private static long percentile(long[] sorted, int n, double p){
+		if(n == 0){
+			return 0;
+		}
+
+		return sorted[Math.min(n - 1, (int)(p * n))];
+	}
+
+}
@@ -0,0 +1,43 @@
+#!/bin/sh
+#
+# Builds the class data sharing archive used by run.sh, from a training run that
+# starts the robot, takes the first sample and exits. Run it on the robot once
+# after each new build; the archive only matches the jars and JVM it was made with.
+#
+# JDK 13 and newer record the classes loaded by the training run directly
+# (-XX:ArchiveClassesAtExit). JDK 11 and 12 dump a class list first and then
+# build the archive from it. JDK 10 is not supported, since it only archives
+# application classes with -XX:+UseAppCDS.
+#
+# Usage: scripts/cds-archive.sh [lib directory] [archive]
+
+LIB=${1:-build/install/pi-robotics/lib}
+ARCHIVE=${2:-build/pi-robotics.jsa}
+
+#The class path must list the jars in the same order every time, or the archive is rejected
+CP=$(ls "$LIB"/*.jar | sort | tr '\n' ':')
+CP=${CP%:}
+
+if [ -z "$CP" ]; then
+	echo "No jars in $LIB" >&2
+	exit 1
+fi
+
+VERSION=$(java -XshowSettings:properties -version 2>&1 | sed -n 's/.*java.specification.version = //p')
+case "$VERSION" in
+	1.*|10) echo "The robot needs JDK 11 or newer (found $VERSION)" >&2; exit 1;;
+esac
+
+mkdir -p "$(dirname "$ARCHIVE")"
+rm -f "$ARCHIVE"
+
+if [ "$VERSION" -ge 13 ]; then
+	java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$CP" main.Main --training-run || exit 1
+else
+	LIST="$ARCHIVE.classlist"
+	java -XX:DumpLoadedClassList="$LIST" -cp "$CP" main.Main --training-run || exit 1
+	java -Xshare:dump -XX:SharedClassListFile="$LIST" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CP" || exit 1
+	rm -f "$LIST"
+fi
+
+echo "Wrote $ARCHIVE"
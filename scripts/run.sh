@@ -0,0 +1,29 @@
+#!/bin/sh
+#
+# Starts the robot, mapping in the class data sharing archive made by
+# cds-archive.sh if there is one, so the classes needed at start up are
+# loaded already parsed and verified rather than read from the jars.
+#
+# Set PI_ROBOTICS_JFR to a directory to keep an always-on Flight Recording of the
+# last hour there, written out when the robot exits (or with jcmd <pid> JFR.dump).
+#
+# Usage: scripts/run.sh [arguments for main.Main]
+
+LIB=${PI_ROBOTICS_LIB:-build/install/pi-robotics/lib}
+ARCHIVE=${PI_ROBOTICS_ARCHIVE:-build/pi-robotics.jsa}
+
+CP=$(ls "$LIB"/*.jar | sort | tr '\n' ':')
+CP=${CP%:}
+
+JFR=""
+if [ -n "$PI_ROBOTICS_JFR" ]; then
+	mkdir -p "$PI_ROBOTICS_JFR"
+	JFR="-XX:StartFlightRecording=disk=true,maxage=1h,dumponexit=true,filename=$PI_ROBOTICS_JFR/pi-robotics.jfr"
+fi
+
+#Falls back to the default archive (with a warning) if this one doesn't match the jars or JVM
+if [ -f "$ARCHIVE" ]; then
+	exec java $JFR -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -cp "$CP" main.Main "$@"
+fi
+
+exec java $JFR -cp "$CP" main.Main "$@"
@@ -0,0 +1,36 @@
+/**
+ * A Flight Recorder event for a phase of calibrating a sensor
+ */
+
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("pirobotics.Calibration")
+@Label("Calibration")
+@Category({"Pi-Robotics", "Sensors"})
+@Description("A phase of calibrating a sensor: loading stored offsets, sampling, or storing the offsets found")
+public class CalibrationEvent extends jdk.jfr.Event {
+	
+	public static final String load = "Load";
+	public static final String sample = "Sample";
+	public static final String store = "Store";
+	
+	@Label("Device Address")
+	public int address;
+	
+	@Label("Phase")
+	public String phase;
+	
+	@Label("Samples")
+	@Description("The number of samples averaged, 0 when none were taken")
+	public int samples;
+	
+	@Label("Sample Sequence")
+	@Description("The number of samples the sensor had taken when the phase ended")
+	public long sequence;
+
+}
@@ -0,0 +1,39 @@
+/**
+ * A Flight Recorder event for one read from a sensor over I2C. Like every event here
+ * it costs next to nothing when not recorded: check shouldCommit before filling it in.
+ * Stack traces are left out, as these are recorded many times a second
+ */
+
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("pirobotics.I2CTransaction")
+@Label("I2C Transaction")
+@Category({"Pi-Robotics", "Sensors"})
+@Description("A read from a sensor over the I2C bus")
+@StackTrace(false)
+public class I2CTransactionEvent extends jdk.jfr.Event {
+	
+	@Label("Device Address")
+	public int address;
+	
+	@Label("Register")
+	public int register;
+	
+	@Label("Bytes")
+	public int bytes;
+	
+	@Label("Sample Sequence")
+	@Description("The number of samples the sensor had taken before this read")
+	public long sequence;
+	
+	@Label("Failed")
+	@Description("Whether the read failed with an I/O error")
+	public boolean failed;
+
+}
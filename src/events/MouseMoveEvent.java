@@ -0,0 +1,30 @@
+/**
+ * A Flight Recorder event for one move of the system cursor
+ */
+
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("pirobotics.MouseMove")
+@Label("Mouse Move")
+@Category({"Pi-Robotics", "Actuators"})
+@Description("A move of the cursor through java.awt.Robot")
+@StackTrace(false)
+public class MouseMoveEvent extends jdk.jfr.Event {
+	
+	@Label("X")
+	public int x;
+	
+	@Label("Y")
+	public int y;
+	
+	@Label("Move Sequence")
+	@Description("The number of moves made before this one")
+	public long sequence;
+
+}
@@ -0,0 +1,31 @@
+/**
+ * A Flight Recorder event for one poll of a sensor by its thread (without the sleep after it)
+ */
+
+package events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("pirobotics.SensorLoop")
+@Label("Sensor Loop Iteration")
+@Category({"Pi-Robotics", "Sensors"})
+@Description("One poll of a sensor: reading it and processing the samples taken")
+@StackTrace(false)
+public class SensorLoopEvent extends jdk.jfr.Event {
+	
+	@Label("Device Address")
+	public int address;
+	
+	@Label("Samples")
+	@Description("The number of samples processed")
+	public int samples;
+	
+	@Label("Sample Sequence")
+	@Description("The number of samples the sensor had taken after this iteration")
+	public long sequence;
+
+}
@@ -0,0 +1,88 @@
+/**
+ * A second order IIR filter (direct form II transposed), using the coefficients from
+ * the Audio EQ Cookbook (R. Bristow-Johnson). Assumes samples arrive at a fixed rate
+ */
+
+package filters;
+
+public class Biquad implements Filter {
+	
+	//Normalized coefficients (divided through by a0)
+	private final float b0, b1, b2;
+	private final float a1, a2;
+	
+	//The filter state
+	private float z1, z2;
+	private boolean primed;//Whether the state has been set up from the first sample
+	
+	/**
+	 * Creates a biquad from its raw coefficients
+	 */
+	public Biquad(double b0, double b1, double b2, double a0, double a1, double a2){
+		this.b0 = (float)(b0 / a0);
+		this.b1 = (float)(b1 / a0);
+		this.b2 = (float)(b2 / a0);
+		this.a1 = (float)(a1 / a0);
+		this.a2 = (float)(a2 / a0);
+		
+		reset();
+	}
+	
+	/**
+	 * Creates a low pass filter
+	 * 
+	 * @param sampleRate - The rate samples arrive at, in Hz
+	 * @param cutoff - The cutoff frequency, in Hz
+	 * @param q - The quality factor, 0.7071 for a Butterworth response
+	 * @return filter - The low pass filter
+	 */
+	public static Biquad lowPass(double sampleRate, double cutoff, double q){
+		double w0 = 2 * Math.PI * cutoff / sampleRate;
+		double cos = Math.cos(w0);
+		double alpha = Math.sin(w0) / (2 * q);
+		
+		return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+	}
+	
+	/**
+	 * Creates a high pass filter
+	 * 
+	 * @param sampleRate - The rate samples arrive at, in Hz
+	 * @param cutoff - The cutoff frequency, in Hz
+	 * @param q - The quality factor, 0.7071 for a Butterworth response
+	 * @return filter - The high pass filter
+	 */
+	public static Biquad highPass(double sampleRate, double cutoff, double q){
+		double w0 = 2 * Math.PI * cutoff / sampleRate;
+		double cos = Math.cos(w0);
+		double alpha = Math.sin(w0) / (2 * q);
+		
+		return new Biquad((1 + cos) / 2, -(1 + cos), (1 + cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+	}
+	
+	@Override
+	public float filter(float value, long timestamp){
+		if(!primed){//Start in the steady state for the first sample so that there's no step response
+			float gain = (b0 + b1 + b2) / (1 + a1 + a2);
+			float y = value * gain;
+			
+			z1 = value * (b1 + b2) - y * (a1 + a2);
+			z2 = value * b2 - y * a2;
+			primed = true;
+		}
+		
+		float y = b0 * value + z1;
+		
+		z1 = b1 * value - a1 * y + z2;
+		z2 = b2 * value - a2 * y;
+		
+		return y;
+	}
+	
+	@Override
+	public void reset(){
+		z1 = z2 = 0;
+		primed = false;
+	}
+
+}
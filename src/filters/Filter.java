@@ -0,0 +1,25 @@
+package filters;
+
+/**
+ * Interface for the streaming filters applied to sensor channels. A filter takes
+ * one sample at a time, runs in constant time and keeps its state in primitive
+ * fields so that filtering never allocates
+ */
+
+public interface Filter {
+	
+	/**
+	 * Passes the next sample through the filter
+	 * 
+	 * @param value - The sample
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 * @return output - The filtered sample
+	 */
+	public abstract float filter(float value, long timestamp);
+	
+	/**
+	 * Clears the state of the filter, the next sample is treated as the first
+	 */
+	public abstract void reset();
+	
+}
@@ -0,0 +1,75 @@
+/**
+ * Holds a separate filter (or chain of filters) for each channel of a sensor, since
+ * every channel needs its own filter state
+ */
+
+package filters;
+
+import java.util.function.Supplier;
+
+public class FilterBank {
+	
+	private final Filter[] channels;//The filter of each channel
+	
+	/**
+	 * @param channels - The number of channels
+	 * @param factory - Creates the filter for each channel, called once per channel
+	 */
+	public FilterBank(int channels, Supplier<Filter> factory){
+		this.channels = new Filter[channels];
+		
+		for(int i = 0; i < channels; i++){
+			this.channels[i] = factory.get();
+		}
+	}
+	
+	/**
+	 * Uses filters that were made together, such as the axes of a KalmanFilter3
+	 * 
+	 * @param channels - The filter of each channel
+	 */
+	public FilterBank(Filter... channels){
+		this.channels = channels.clone();
+	}
+	
+	/**
+	 * Filters one sample of every channel, replacing the values with the filtered ones
+	 * 
+	 * @param sample - The value of each channel, overwritten with the filtered values
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 */
+	public void filter(float[] sample, long timestamp){
+		for(int i = 0; i < channels.length; i++){
+			sample[i] = channels[i].filter(sample[i], timestamp);
+		}
+	}
+	
+	/**
+	 * Filters a single channel
+	 * 
+	 * @param channel - The channel the value belongs to
+	 * @param value - The sample
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 * @return output - The filtered value
+	 */
+	public float filter(int channel, float value, long timestamp){
+		return channels[channel].filter(value, timestamp);
+	}
+	
+	/**
+	 * Clears the state of every channel
+	 */
+	public void reset(){
+		for(Filter filter : channels){
+			filter.reset();
+		}
+	}
+	
+	/**
+	 * @return channels - The number of channels
+	 */
+	public int getChannels(){
+		return channels.length;
+	}
+
+}
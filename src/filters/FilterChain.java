@@ -0,0 +1,35 @@
+/**
+ * Runs a sample through several filters in turn, e.g. a median filter to remove
+ * spikes followed by a low pass filter
+ */
+
+package filters;
+
+public class FilterChain implements Filter {
+	
+	private final Filter[] stages;//The filters, in the order they are applied
+	
+	/**
+	 * @param stages - The filters, in the order they are applied
+	 */
+	public FilterChain(Filter... stages){
+		this.stages = stages.clone();
+	}
+
+	@Override
+	public float filter(float value, long timestamp){
+		for(Filter stage : stages){
+			value = stage.filter(value, timestamp);
+		}
+		
+		return value;
+	}
+
+	@Override
+	public void reset(){
+		for(Filter stage : stages){
+			stage.reset();
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/**
+ * A one dimensional Kalman filter for a value that is expected to stay roughly constant
+ * (a random walk), such as an acceleration axis or an angle
+ */
+
+package filters;
+
+public class KalmanFilter implements Filter {
+	
+	private final float processNoise;//How much the true value is expected to wander each sample (variance)
+	private final float measurementNoise;//The variance of the sensor noise
+	
+	private boolean primed;//Whether the estimate has been set from the first sample
+	private float estimate;//The current estimate of the value
+	private float error;//The variance of the estimate
+	
+	/**
+	 * @param processNoise - The variance the true value wanders by each sample
+	 * @param measurementNoise - The variance of the sensor noise
+	 */
+	public KalmanFilter(float processNoise, float measurementNoise){
+		this.processNoise = processNoise;
+		this.measurementNoise = measurementNoise;
+		
+		reset();
+	}
+
+	@Override
+	public float filter(float value, long timestamp){
+		if(!primed){
+			primed = true;
+			estimate = value;
+			error = measurementNoise;
+			
+			return value;
+		}
+		
+		//Predict
+		error += processNoise;
+		
+		//Update
+		float gain = error / (error + measurementNoise);
+		estimate += gain * (value - estimate);
+		error *= 1 - gain;
+		
+		return estimate;
+	}
+
+	@Override
+	public void reset(){
+		primed = false;
+	}
+
+}
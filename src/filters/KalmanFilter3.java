@@ -0,0 +1,148 @@
+/**
+ * A Kalman filter for a three dimensional vector (such as the acceleration of an MPU6050)
+ * where each axis is a random walk with the same noise. Since every axis shares its noise
+ * and is updated at the same time, they also share the estimate variance and gain, so the
+ * vector costs little more than a single axis.
+ * 
+ * The vector can be filtered whole, or an axis at a time through the Filter of each axis,
+ * so that it fits in a FilterChain or FilterBank, e.g.
+ * new FilterBank(kalman.getAxis(0), kalman.getAxis(1), kalman.getAxis(2))
+ */
+
+package filters;
+
+public class KalmanFilter3 {
+	
+	private final float processNoise;//How much the true vector is expected to wander each sample (variance per axis)
+	private final float measurementNoise;//The variance of the sensor noise per axis
+	
+	private boolean primed;//Whether the estimate has been set from the first sample
+	private final float[] estimate = new float[3];//The current estimate of the vector
+	private float error;//The variance of the estimate of each axis
+	private float gain;//How far the estimate moves towards the current sample
+	private long samples;//The number of samples started
+	
+	private final Axis[] axes = {new Axis(0), new Axis(1), new Axis(2)};
+	
+	/**
+	 * @param processNoise - The variance each axis wanders by each sample
+	 * @param measurementNoise - The variance of the sensor noise on each axis
+	 */
+	public KalmanFilter3(float processNoise, float measurementNoise){
+		this.processNoise = processNoise;
+		this.measurementNoise = measurementNoise;
+		
+		reset();
+	}
+	
+	/**
+	 * Passes the next sample through the filter, replacing it with the filtered vector
+	 * 
+	 * @param sample - The {x, y, z} sample, overwritten with the estimate
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 */
+	public void filter(float[] sample, long timestamp){
+		advance();
+		
+		for(int i = 0; i < 3; i++){
+			estimate[i] += gain * (sample[i] - estimate[i]);
+			sample[i] = estimate[i];
+		}
+	}
+	
+	/**
+	 * Starts the next sample, finding the gain shared by every axis. The first sample sets the estimate outright
+	 */
+	private void advance(){
+		samples++;
+		
+		if(!primed){
+			primed = true;
+			error = measurementNoise;
+			gain = 1;
+			
+			return;
+		}
+		
+		//Predict
+		error += processNoise;
+		
+		//Update
+		gain = error / (error + measurementNoise);
+		error *= 1 - gain;
+	}
+	
+	/**
+	 * Clears the state of the filter, the next sample is treated as the first
+	 */
+	public void reset(){
+		primed = false;
+		samples = 0;
+		
+		for(Axis axis : axes){//So the first axis to take a value starts the first sample again
+			axis.sample = 0;
+		}
+	}
+	
+	/**
+	 * The filter of a single axis. Each axis takes one value per sample, in any order; the
+	 * first axis to take its next value starts the next sample for all of them
+	 * 
+	 * @param axis - 0 for x, 1 for y or 2 for z
+	 * @return filter - The filter of the axis, sharing this filter's state
+	 */
+	public Filter getAxis(int axis){
+		return axes[axis];
+	}
+	
+	/**
+	 * @return x - The current estimate of the x axis
+	 */
+	public float getX(){
+		return estimate[0];
+	}
+	
+	/**
+	 * @return y - The current estimate of the y axis
+	 */
+	public float getY(){
+		return estimate[1];
+	}
+	
+	/**
+	 * @return z - The current estimate of the z axis
+	 */
+	public float getZ(){
+		return estimate[2];
+	}
+	
+	private class Axis implements Filter {
+		
+		private final int axis;//The index of the axis in the vector
+		private long sample;//The sample this axis last took a value in
+		
+		private Axis(int axis){
+			this.axis = axis;
+		}
+		
+		@Override
+		public float filter(float value, long timestamp){
+			if(sample == samples){//This axis has had its value for the current sample
+				advance();
+			}
+			
+			sample = samples;
+			
+			estimate[axis] += gain * (value - estimate[axis]);
+			
+			return estimate[axis];
+		}
+		
+		@Override
+		public void reset(){
+			KalmanFilter3.this.reset();
+		}
+		
+	}
+
+}
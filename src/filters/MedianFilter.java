@@ -0,0 +1,79 @@
+/**
+ * Outputs the median of the last n samples, removing single sample spikes that would
+ * drag an average. A sorted copy of the window is kept up to date by one removal and
+ * one insertion per sample, so the cost depends only on the (small, fixed) window size
+ */
+
+package filters;
+
+public class MedianFilter implements Filter {
+	
+	private final float[] window;//The last n samples, in insertion order
+	private final float[] sorted;//The same samples, in ascending order
+	
+	private int head;//Where the next sample is written
+	private int size;//The number of samples in the window
+	
+	/**
+	 * @param n - The number of samples to take the median of
+	 */
+	public MedianFilter(int n){
+		if(n < 1){
+			throw new IllegalArgumentException("Window must hold at least one sample: " + n);
+		}
+		
+		window = new float[n];
+		sorted = new float[n];
+		
+		reset();
+	}
+
+	@Override
+	public float filter(float value, long timestamp){
+		int count = size;
+		
+		if(size == window.length){//Take the oldest sample out of the sorted copy
+			int i = indexOf(window[head]);
+			System.arraycopy(sorted, i + 1, sorted, i, count - i - 1);
+			count--;
+		}else{
+			size++;
+		}
+		
+		//Insert the new sample, shifting everything bigger up one
+		int i = count;
+		while(i > 0 && sorted[i - 1] > value){
+			sorted[i] = sorted[i - 1];
+			i--;
+		}
+		sorted[i] = value;
+		
+		window[head] = value;
+		head = (head + 1) % window.length;
+		
+		if((size & 1) == 1){
+			return sorted[size >> 1];
+		}
+		
+		return (sorted[(size >> 1) - 1] + sorted[size >> 1]) / 2;
+	}
+	
+	/**
+	 * Finds a sample in the sorted copy
+	 */
+	private int indexOf(float value){
+		for(int i = 0; i < size; i++){
+			if(Float.compare(sorted[i], value) == 0){
+				return i;
+			}
+		}
+		
+		return size - 1;
+	}
+
+	@Override
+	public void reset(){
+		head = size = 0;
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Averages the last n samples, keeping a running sum so each sample costs the same
+ * no matter the window size
+ */
+
+package filters;
+
+public class MovingAverage implements Filter {
+	
+	private final float[] window;//The last n samples, in insertion order
+	
+	private int head;//Where the next sample is written
+	private int size;//The number of samples in the window
+	private double sum;//The sum of the samples in the window
+	
+	/**
+	 * @param n - The number of samples to average
+	 */
+	public MovingAverage(int n){
+		if(n < 1){
+			throw new IllegalArgumentException("Window must hold at least one sample: " + n);
+		}
+		
+		window = new float[n];
+		
+		reset();
+	}
+
+	@Override
+	public float filter(float value, long timestamp){
+		if(size == window.length){
+			sum -= window[head];
+		}else{
+			size++;
+		}
+		
+		window[head] = value;
+		sum += value;
+		
+		head = (head + 1) % window.length;
+		
+		return (float)(sum / size);
+	}
+
+	@Override
+	public void reset(){
+		head = size = 0;
+		sum = 0;
+	}
+
+}
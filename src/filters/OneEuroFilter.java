@@ -0,0 +1,77 @@
+/**
+ * The 1 Euro filter (Casiez, Roussel and Vogel, 2012), a low pass filter whose cutoff
+ * rises with the speed of the signal. Slow movements are smoothed heavily to remove
+ * jitter while fast movements pass through with little lag, which suits cursor control.
+ * Uses the sample timestamps, so irregular sample rates are handled
+ */
+
+package filters;
+
+public class OneEuroFilter implements Filter {
+	
+	private static final double fallbackPeriod = 1e-3;//The period assumed when two samples share a timestamp (s)
+	
+	private final double minCutoff;//The cutoff when the signal is still (Hz)
+	private final double beta;//How quickly the cutoff rises with speed
+	private final double derivativeCutoff;//The cutoff used to smooth the speed estimate (Hz)
+	
+	private boolean primed;//Whether a sample has been seen
+	private long lastTimestamp;//The time of the previous sample (ns)
+	private double lastValue;//The previous filtered value
+	private double lastDerivative;//The previous filtered speed
+	
+	/**
+	 * @param minCutoff - The cutoff when the signal is still, in Hz
+	 * @param beta - How quickly the cutoff rises with the speed of the signal
+	 * @param derivativeCutoff - The cutoff used to smooth the speed estimate, in Hz
+	 */
+	public OneEuroFilter(double minCutoff, double beta, double derivativeCutoff){
+		this.minCutoff = minCutoff;
+		this.beta = beta;
+		this.derivativeCutoff = derivativeCutoff;
+		
+		reset();
+	}
+
+	@Override
+	public float filter(float value, long timestamp){
+		if(!primed){
+			primed = true;
+			lastTimestamp = timestamp;
+			lastValue = value;
+			lastDerivative = 0;
+			
+			return value;
+		}
+		
+		double dt = (timestamp - lastTimestamp) / 1e9;
+		if(dt <= 0){
+			dt = fallbackPeriod;
+		}
+		
+		double derivative = (value - lastValue) / dt;
+		lastDerivative += alpha(derivativeCutoff, dt) * (derivative - lastDerivative);
+		
+		double cutoff = minCutoff + beta * Math.abs(lastDerivative);
+		lastValue += alpha(cutoff, dt) * (value - lastValue);
+		
+		lastTimestamp = timestamp;
+		
+		return (float)lastValue;
+	}
+	
+	/**
+	 * The smoothing factor of an exponential filter with the given cutoff
+	 */
+	private static double alpha(double cutoff, double dt){
+		double tau = 1 / (2 * Math.PI * cutoff);
+		
+		return 1 / (1 + tau / dt);
+	}
+
+	@Override
+	public void reset(){
+		primed = false;
+	}
+
+}
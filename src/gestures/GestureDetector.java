@@ -0,0 +1,310 @@
+/**
+ * Finds taps, double taps, shakes, freefalls and orientation changes in the acceleration
+ * stream of a sensor. Samples are processed one at a time in constant time, and every
+ * gesture is reported a bounded time after it starts:
+ *
+ * tap         - maxTapDuration + doubleTapWindow (a tap waits to see whether a second follows),
+ *               plus maxTapDuration if a spike starts just before the window closes
+ * double tap  - 2 * maxTapDuration + doubleTapWindow + tapQuiet (to be sure it isn't the start of a shake)
+ * shake       - shakeWindow
+ * freefall    - freefallDuration, or sooner if the sensor's own detection reports it first
+ * orientation - orientationHold
+ *
+ * plus one sample period. Taps last tens of milliseconds, so the samples must come at a high rate (e.g. the MPU6050 FIFO)
+ *
+ * Two taps make a double tap if the second starts within doubleTapWindow of the end of the first, even if it ends after the window
+ */
+
+package gestures;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import gestures.GestureEvent.Orientation;
+import gestures.GestureEvent.Type;
+
+public class GestureDetector {
+
+	//Taps are short spikes of acceleration away from gravity
+	private static final float tapThreshold = 0.5f;//The dynamic acceleration that starts a tap (g)
+	private static final long maxTapDuration = 80_000_000L;//The longest a spike can last and still be a tap (ns)
+	private static final long minTapGap = 40_000_000L;//Spikes closer than this are ringing from the same tap (ns)
+	private static final long doubleTapWindow = 300_000_000L;//The longest gap between the taps of a double tap (ns)
+	private static final long tapQuiet = 150_000_000L;//How long after a double tap there must be no more spikes (ns)
+
+	//Shakes are several strong spikes in quick succession
+	private static final float shakeThreshold = 1.2f;//The dynamic acceleration counted as a shake peak (g)
+	private static final int shakePeaks = 4;//The number of peaks that make a shake
+	private static final long shakeWindow = 600_000_000L;//The time all the peaks must fall within (ns)
+
+	//Freefalls are a sustained lack of acceleration
+	private static final float freefallThreshold = 0.3f;//The total acceleration below which the sensor is falling (g)
+	private static final float freefallRelease = 0.5f;//The total acceleration that ends a freefall (g)
+	private static final long freefallDuration = 60_000_000L;//How long the sensor must fall for (ns)
+
+	//Orientations are the axis pointing up once the sensor settles
+	private static final float orientationThreshold = 0.8f;//The fraction of gravity an axis needs to be pointing up
+	private static final long orientationHold = 250_000_000L;//How long an orientation must be held (ns)
+
+	private static final double gravityTimeConstant = 0.5;//How slowly the gravity estimate follows the acceleration (s)
+
+	/**
+	 * The bit of the MPU6050 INT_STATUS register set on a hardware freefall detection
+	 */
+	public static final int hardwareFreefall = 0b10000000;
+
+	private final List<GestureListener> listeners = new CopyOnWriteArrayList<GestureListener>();
+
+	private boolean primed;//Whether the gravity estimate has been set from the first sample
+	private long lastTime;//The time of the previous sample (ns)
+	private float gx, gy, gz;//The estimate of gravity (g)
+
+	private boolean inSpike;//Whether the dynamic acceleration is above the tap threshold
+	private long spikeStart;//The time the current spike started (ns)
+	private boolean pendingTap;//Whether a tap is waiting to see if it is the first of a double tap
+	private long pendingTapOnset;//The time the pending tap started (ns)
+	private long pendingTapEnd;//The time the pending tap ended (ns)
+	private boolean pendingDouble;//Whether a double tap is waiting to be sure no more spikes follow
+
+	private final long[] peaks = new long[shakePeaks];//The times of the recent shake peaks, as a ring
+	private int peakHead;//Where the next peak is written
+	private int peakCount;//The number of peaks recorded, up to shakePeaks
+	private boolean aboveShake;//Whether the dynamic acceleration is above the shake threshold
+	private boolean shaking;//Whether a shake was reported within the last shakeWindow
+	private long shakeEnd;//The time the last shake was reported (ns)
+
+	private boolean falling;//Whether the total acceleration is below the freefall threshold
+	private boolean freefallReported;//Whether the current freefall has been reported
+	private long fallStart;//The time the current fall started (ns)
+
+	private Orientation orientation;//The last reported orientation
+	private Orientation candidate;//The orientation currently being held
+	private long candidateStart;//The time the candidate orientation was first seen (ns)
+
+	/**
+	 * @param listener - Will be told of every detected gesture
+	 */
+	public void addListener(GestureListener listener){
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener - Will no longer be told of detected gestures
+	 */
+	public void removeListener(GestureListener listener){
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Passes on the interrupt status read from a sensor with hardware freefall detection. The software
+	 * detection keeps running, so whichever notices a freefall first reports it
+	 *
+	 * @param status - The value of the INT_STATUS register
+	 * @param timestamp - The time the status was read, in nanoseconds
+	 */
+	public void hardwareStatus(int status, long timestamp){
+		if((status & hardwareFreefall) != 0 && !freefallReported){
+			freefallReported = true;
+			publish(Type.FREEFALL, null, falling ? fallStart : timestamp, timestamp);
+		}
+	}
+
+	/**
+	 * Processes the next sample
+	 *
+	 * @param x - The x acceleration (g)
+	 * @param y - The y acceleration (g)
+	 * @param z - The z acceleration (g)
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 */
+	public void process(float x, float y, float z, long timestamp){
+		if(!primed){
+			primed = true;
+			gx = x;
+			gy = y;
+			gz = z;
+		}else{
+			float a = (float)(1 - Math.exp(-((timestamp - lastTime) / 1e9) / gravityTimeConstant));
+			gx += a * (x - gx);
+			gy += a * (y - gy);
+			gz += a * (z - gz);
+		}
+
+		lastTime = timestamp;
+
+		float dx = x - gx, dy = y - gy, dz = z - gz;
+		float dynamic = (float)Math.sqrt(dx * dx + dy * dy + dz * dz);//The acceleration beyond gravity
+		float total = (float)Math.sqrt(x * x + y * y + z * z);
+
+		detectShake(dynamic, timestamp);
+		detectTap(dynamic, timestamp);
+		detectFreefall(total, timestamp);
+		detectOrientation(x, y, z, total, timestamp);
+	}
+
+	private void detectTap(float dynamic, long t){
+		if(!inSpike){
+			if(dynamic > tapThreshold){
+				inSpike = true;
+				spikeStart = t;
+				
+				if(pendingDouble && t - pendingTapEnd >= minTapGap){//A third spike, so more likely a shake than a double tap
+					pendingDouble = pendingTap = false;
+				}
+			}
+		}else if(dynamic < tapThreshold / 2){//Hysteresis, so the spike has to settle before it ends
+			inSpike = false;
+
+			if(t - spikeStart <= maxTapDuration && !isShaking(t)){
+				tap(spikeStart, t);
+			}
+		}
+
+		if(pendingDouble){
+			if(t - pendingTapEnd > tapQuiet){
+				pendingDouble = pendingTap = false;
+				publish(Type.DOUBLE_TAP, null, pendingTapOnset, t);
+			}
+		}else if(pendingTap && t - pendingTapEnd > doubleTapWindow && !secondTapStarted(t)){//Nothing followed the tap in time, so it was a single tap
+			pendingTap = false;
+			publish(Type.TAP, null, pendingTapOnset, t);
+		}
+	}
+
+	/**
+	 * A tap counts towards a double tap by the time it starts, so a spike that started within the
+	 * window holds the pending tap until it is too long to be a tap
+	 */
+	private boolean secondTapStarted(long t){
+		return inSpike && spikeStart - pendingTapEnd <= doubleTapWindow && t - spikeStart <= maxTapDuration;
+	}
+
+	private void tap(long onset, long end){
+		if(!pendingTap){
+			pendingTap = true;
+			pendingTapOnset = onset;
+			pendingTapEnd = end;
+		}else if(!pendingDouble && onset - pendingTapEnd >= minTapGap){
+			pendingDouble = true;
+			pendingTapEnd = end;
+		}
+	}
+
+	private void detectShake(float dynamic, long t){
+		if(dynamic <= shakeThreshold){
+			aboveShake = false;
+			return;
+		}
+
+		if(aboveShake){//Still the same peak
+			return;
+		}
+
+		aboveShake = true;
+
+		if(isShaking(t)){
+			return;
+		}
+
+		peaks[peakHead] = t;
+		peakHead = (peakHead + 1) % shakePeaks;
+
+		if(peakCount < shakePeaks){
+			peakCount++;
+		}
+
+		long oldest = peaks[peakHead];//The oldest of the last shakePeaks peaks
+		if(peakCount == shakePeaks && t - oldest <= shakeWindow){
+			peakCount = 0;
+			shaking = true;
+			shakeEnd = t;
+
+			pendingTap = pendingDouble = inSpike = false;//The spikes were part of the shake, not taps
+			publish(Type.SHAKE, null, oldest, t);
+		}
+	}
+
+	/**
+	 * Whether a shake was reported recently enough that its spikes should be ignored
+	 */
+	private boolean isShaking(long t){
+		if(shaking && t - shakeEnd > shakeWindow){
+			shaking = false;
+		}
+
+		return shaking;
+	}
+
+	private void detectFreefall(float total, long t){
+		if(total > freefallRelease){
+			falling = freefallReported = false;
+			return;
+		}
+
+		if(!falling){
+			if(total < freefallThreshold){
+				falling = true;
+				fallStart = t;
+			}
+
+			return;
+		}
+
+		if(!freefallReported && t - fallStart >= freefallDuration){
+			freefallReported = true;
+			publish(Type.FREEFALL, null, fallStart, t);
+		}
+	}
+
+	private void detectOrientation(float x, float y, float z, float total, long t){
+		Orientation current = null;
+
+		//Only trust the direction of gravity when the sensor is roughly still
+		if(total > 0.8f && total < 1.2f){
+			float limit = orientationThreshold * total;
+
+			if(x > limit) current = Orientation.X_UP;
+			else if(x < -limit) current = Orientation.X_DOWN;
+			else if(y > limit) current = Orientation.Y_UP;
+			else if(y < -limit) current = Orientation.Y_DOWN;
+			else if(z > limit) current = Orientation.Z_UP;
+			else if(z < -limit) current = Orientation.Z_DOWN;
+		}
+
+		if(current != candidate){
+			candidate = current;
+			candidateStart = t;
+			return;
+		}
+
+		if(candidate != null && candidate != orientation && t - candidateStart >= orientationHold){
+			orientation = candidate;
+			publish(Type.ORIENTATION, orientation, candidateStart, t);
+		}
+	}
+
+	private void publish(Type type, Orientation orientation, long onset, long timestamp){
+		GestureEvent event = new GestureEvent(type, orientation, onset, timestamp);
+
+		for(GestureListener listener : listeners){
+			listener.gestureDetected(event);
+		}
+	}
+
+	/**
+	 * Clears all detection state, e.g. after samples were lost
+	 */
+	public void reset(){
+		primed = inSpike = pendingTap = pendingDouble = aboveShake = shaking = falling = freefallReported = false;
+		peakCount = 0;
+		orientation = candidate = null;
+	}
+
+	/**
+	 * @return orientation - The axis last reported to be pointing up, null if none has been yet
+	 */
+	public Orientation getOrientation(){
+		return orientation;
+	}
+
+}
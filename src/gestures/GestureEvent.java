@@ -0,0 +1,82 @@
+/**
+ * A discrete event found in the acceleration stream of a sensor
+ */
+
+package gestures;
+
+public class GestureEvent {
+	
+	/**
+	 * The possible types of gesture
+	 */
+	public enum Type{
+		TAP, DOUBLE_TAP, SHAKE, FREEFALL, ORIENTATION;
+	}
+	
+	/**
+	 * The axis of the sensor pointing up, used by orientation events
+	 */
+	public enum Orientation{
+		X_UP, X_DOWN, Y_UP, Y_DOWN, Z_UP, Z_DOWN;
+	}
+	
+	private final Type type;//The type of gesture
+	private final Orientation orientation;//The new orientation, only set for orientation events
+	
+	private final long onset;//The time the gesture started, in nanoseconds
+	private final long timestamp;//The time of the sample that completed the gesture, in nanoseconds
+	
+	/**
+	 * @param type - The type of gesture
+	 * @param orientation - The new orientation for orientation events, otherwise null
+	 * @param onset - The time the gesture started, in nanoseconds
+	 * @param timestamp - The time of the sample that completed the gesture, in nanoseconds
+	 */
+	public GestureEvent(Type type, Orientation orientation, long onset, long timestamp){
+		this.type = type;
+		this.orientation = orientation;
+		this.onset = onset;
+		this.timestamp = timestamp;
+	}
+	
+	/**
+	 * @return type - The type of gesture
+	 */
+	public Type getType(){
+		return type;
+	}
+	
+	/**
+	 * @return orientation - The new orientation for orientation events, otherwise null
+	 */
+	public Orientation getOrientation(){
+		return orientation;
+	}
+	
+	/**
+	 * @return onset - The time the gesture started, in nanoseconds
+	 */
+	public long getOnset(){
+		return onset;
+	}
+	
+	/**
+	 * @return timestamp - The time of the sample that completed the gesture, in nanoseconds
+	 */
+	public long getTimestamp(){
+		return timestamp;
+	}
+	
+	/**
+	 * @return latency - How long after the gesture started it was detected, in nanoseconds
+	 */
+	public long getLatency(){
+		return timestamp - onset;
+	}
+	
+	@Override
+	public String toString(){
+		return orientation == null ? type.toString() : type + " " + orientation;
+	}
+
+}
@@ -0,0 +1,16 @@
+package gestures;
+
+/**
+ * Interface for anything wanting to be told when a gesture is detected
+ */
+
+public interface GestureListener {
+	
+	/**
+	 * Called from the sensor thread as soon as a gesture is detected, so it should return quickly
+	 * 
+	 * @param event - The detected gesture
+	 */
+	public abstract void gestureDetected(GestureEvent event);
+	
+}
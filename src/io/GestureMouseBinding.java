@@ -0,0 +1,53 @@
+/**
+ * Turns detected gestures into mouse clicks. By default a tap is a left click, a
+ * double tap is a left double click and a shake is a right click
+ */
+
+package io;
+
+import java.awt.event.InputEvent;
+
+import gestures.GestureEvent;
+import gestures.GestureListener;
+
+public class GestureMouseBinding implements GestureListener {
+	
+	private final MouseSink mouse;//The mouse to click
+	
+	//The button mask and number of clicks for each gesture type, indexed by ordinal
+	private final int[] buttons = new int[GestureEvent.Type.values().length];
+	private final int[] clicks = new int[GestureEvent.Type.values().length];
+	
+	/**
+	 * @param mouse - The mouse to click
+	 */
+	public GestureMouseBinding(MouseSink mouse){
+		this.mouse = mouse;
+		
+		bind(GestureEvent.Type.TAP, InputEvent.BUTTON1_DOWN_MASK, 1);
+		bind(GestureEvent.Type.DOUBLE_TAP, InputEvent.BUTTON1_DOWN_MASK, 2);
+		bind(GestureEvent.Type.SHAKE, InputEvent.BUTTON3_DOWN_MASK, 1);
+	}
+	
+	/**
+	 * Sets the clicks made when a type of gesture is detected
+	 * 
+	 * @param type - The type of gesture
+	 * @param buttons - The buttons to click, as an InputEvent button mask
+	 * @param clicks - The number of clicks, 0 to ignore the gesture
+	 */
+	public void bind(GestureEvent.Type type, int buttons, int clicks){
+		this.buttons[type.ordinal()] = buttons;
+		this.clicks[type.ordinal()] = clicks;
+	}
+
+	@Override
+	public void gestureDetected(GestureEvent event){
+		int i = event.getType().ordinal();
+		
+		if(clicks[i] > 0){
+			mouse.click(buttons[i], clicks[i]);
+		}
+	}
+
+}
@@ -4,8 +4,12 @@ import java.awt.AWTException;
 import java.awt.Dimension;
 import java.awt.Robot;
 import java.awt.Toolkit;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-public class MouseController extends Thread {
+import events.MouseMoveEvent;
+
+public class MouseController extends Thread implements MouseSink {
 	
 	private Dimension screenDimensions = Toolkit.getDefaultToolkit().getScreenSize();
 	
@@ -14,6 +18,10 @@ public class MouseController extends Thread {
 	private int mx;
 	private int my;
 	
+	private long moves;//The number of times the cursor has been moved
+	
+	private final Queue<int[]> pendingClicks = new ConcurrentLinkedQueue<int[]>();//Clicks waiting to be made, as {buttons, clicks}
+	
 	public MouseController(int cx, int cy){
 		mx = cx;
 		my = cy;
@@ -46,7 +54,27 @@ public class MouseController extends Thread {
 				my = screenDimensions.height;
 			}
 			
+			MouseMoveEvent event = new MouseMoveEvent();
+			event.begin();
 			robot.mouseMove(mx, my);
+			event.end();
+			
+			if(event.shouldCommit()){
+				event.x = mx;
+				event.y = my;
+				event.sequence = moves;
+				event.commit();
+			}
+			moves++;
+			
+			//Make the clicks asked for since the last move
+			int[] click;
+			while((click = pendingClicks.poll()) != null){
+				for(int i = 0; i < click[1]; i++){
+					robot.mousePress(click[0]);
+					robot.mouseRelease(click[0]);
+				}
+			}
 			
 			try {
 				Thread.sleep(1000 / 60);
@@ -57,9 +85,26 @@ public class MouseController extends Thread {
 		
 	}
 	
+	@Override
 	public void offsetMouse(int dx, int dy){
 		mx += dx;
 		my += dy;
 	}
+	
+	/**
+	 * Clicks the given mouse buttons at the current cursor position. The clicks are made by this
+	 * controller's thread after its next move, so the caller (e.g. a sensor thread) isn't held up by them
+	 * 
+	 * @param buttons - The buttons to click, as an InputEvent button mask (e.g. InputEvent.BUTTON1_DOWN_MASK)
+	 * @param clicks - The number of times to click them
+	 */
+	@Override
+	public void click(int buttons, int clicks){
+		if(robot == null || clicks <= 0){
+			return;
+		}
+		
+		pendingClicks.add(new int[]{buttons, clicks});
+	}
 
 }
@@ -0,0 +1,26 @@
+package io;
+
+/**
+ * Interface for wherever the cursor movements and clicks worked out from the sensors are sent
+ */
+
+public interface MouseSink {
+	
+	/**
+	 * Moves the cursor relative to where it is
+	 * 
+	 * @param dx - The distance to move right (pixels)
+	 * @param dy - The distance to move down (pixels)
+	 */
+	public abstract void offsetMouse(int dx, int dy);
+	
+	/**
+	 * Clicks the given mouse buttons at the current cursor position. Called from the sensor
+	 * threads (by gestures), so it should hand the clicks off rather than wait for them
+	 * 
+	 * @param buttons - The buttons to click, as an InputEvent button mask (e.g. InputEvent.BUTTON1_DOWN_MASK)
+	 * @param clicks - The number of times to click them
+	 */
+	public abstract void click(int buttons, int clicks);
+	
+}
@@ -0,0 +1,35 @@
+/**
+ * Moves the cursor by how far a sensor is tilted from level, so that holding it
+ * tilted keeps the cursor moving in that direction
+ */
+
+package io;
+
+public class TiltMapping {
+	
+	private static final double level = 1.57;//The rotation of a level sensor about x and y (radians)
+	
+	private final double gain;//The pixels moved per radian of tilt, each time the mapping is applied
+	
+	/**
+	 * @param gain - The pixels moved per radian of tilt, each time the mapping is applied
+	 */
+	public TiltMapping(double gain){
+		this.gain = gain;
+	}
+	
+	/**
+	 * Moves the cursor for the current tilt of a sensor
+	 * 
+	 * @param alpha - The rotation of the sensor about x (radians)
+	 * @param beta - The rotation of the sensor about y (radians)
+	 * @param mouse - The mouse to move
+	 */
+	public void move(double alpha, double beta, MouseSink mouse){
+		double x = (level - alpha) * gain;
+		double y = (beta - level) * gain;
+		
+		mouse.offsetMouse((int)x, (int)y);
+	}
+
+}
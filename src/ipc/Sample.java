@@ -0,0 +1,23 @@
+/**
+ * A sample read from a shared sample ring. Meant to be reused for every read, so
+ * reading never allocates
+ */
+
+package ipc;
+
+public class Sample {
+	
+	public long number;//The number of the sample in the ring
+	public long timestamp;//When the sample was taken, in nanoseconds (System.nanoTime)
+	public int sensor;//The id of the sensor the sample came from
+	
+	public float x, y, z;//The accelerations (g)
+	public float alpha, beta, gamma;//The rotations about x, y and z (radians)
+	
+	@Override
+	public String toString(){
+		return "#" + number + " sensor " + sensor + " @" + timestamp + " | " + x + ", " + y + ", " + z
+				+ " | " + alpha + ", " + beta + ", " + gamma;
+	}
+
+}
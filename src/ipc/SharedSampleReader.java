@@ -0,0 +1,167 @@
+/**
+ * Reads samples published by a SharedSampleRing, possibly in another process. The file
+ * is mapped read only and samples are read straight from the mapping, so reading takes
+ * no system calls. A reader that falls more than a ring behind skips the samples that
+ * were overwritten and counts them as lost. If the writer restarts, possibly with a
+ * different number of slots, the reader maps the new ring and carries on from its newest sample
+ */
+
+package ipc;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class SharedSampleReader implements Closeable {
+	
+	private final String path;
+	private final RandomAccessFile file;
+	private MappedByteBuffer buffer;//The mapped file
+	
+	private int mask;//Turns a sample number into a slot
+	
+	private long next;//The number of the next sample to read
+	private long lost;//The number of samples overwritten before they were read
+	
+	/**
+	 * Maps a ring, starting from the newest sample
+	 * 
+	 * @param path - The file the ring was created in
+	 * @throws IOException - If the file isn't a ready ring of a known version
+	 */
+	public SharedSampleReader(String path) throws IOException {
+		this.path = path;
+		file = new RandomAccessFile(new File(path), "r");
+		
+		try {
+			map();
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		
+		next = getCursor();
+	}
+	
+	/**
+	 * Maps the file and reads the layout of the ring from its header. Nothing changes unless the ring is ready and valid
+	 * 
+	 * @throws IOException - If the file isn't a ready ring of a known version, or its slots don't fit in the file
+	 */
+	private void map() throws IOException {
+		MappedByteBuffer mapped = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		
+		if(mapped.capacity() < SharedSampleRing.headerSize || mapped.getInt(SharedSampleRing.MAGIC) != SharedSampleRing.magic){
+			throw new IOException(path + " is not a sample ring, or isn't ready yet");
+		}
+		
+		VarHandle.loadLoadFence();
+		
+		if(mapped.getInt(SharedSampleRing.VERSION) != SharedSampleRing.version
+				|| mapped.getInt(SharedSampleRing.SLOT_SIZE) != SharedSampleRing.slotSize){
+			throw new IOException(path + " has an unsupported layout (version " + mapped.getInt(SharedSampleRing.VERSION) + ")");
+		}
+		
+		int slots = mapped.getInt(SharedSampleRing.SLOT_COUNT);
+		
+		if(slots < 2 || Integer.bitCount(slots) != 1
+				|| SharedSampleRing.headerSize + (long)slots * SharedSampleRing.slotSize > mapped.capacity()){
+			throw new IOException(path + " has " + slots + " slots, which don't fit in its " + mapped.capacity() + " bytes");
+		}
+		
+		buffer = mapped;
+		mask = slots - 1;
+	}
+	
+	/**
+	 * Reads the next sample, if one has been published. Returns false while a restarted writer is still setting up the ring
+	 * 
+	 * @param sample - Filled with the sample
+	 * @return read - Whether a sample was read
+	 */
+	public boolean read(Sample sample){
+		while(true){
+			long cursor = getCursor();
+			
+			if(cursor < next || buffer.getInt(SharedSampleRing.SLOT_COUNT) != mask + 1){//The writer restarted, so remap and start again from its newest sample
+				try {
+					map();
+				} catch (IOException e) {//Not ready yet, so try again on the next read
+					return false;
+				}
+				
+				cursor = getCursor();
+				next = cursor;
+				continue;
+			}
+			
+			if(cursor - next > mask + 1){//Fallen more than a ring behind
+				lost += cursor - next - (mask + 1);
+				next = cursor - (mask + 1);
+			}
+			
+			if(next == cursor){
+				return false;
+			}
+			
+			int slot = SharedSampleRing.headerSize + (int)(next & mask) * SharedSampleRing.slotSize;
+			long expected = 2 * next + 2;
+			
+			long before = buffer.getLong(slot + SharedSampleRing.SEQUENCE);
+			VarHandle.loadLoadFence();
+			
+			sample.timestamp = buffer.getLong(slot + SharedSampleRing.TIMESTAMP);
+			sample.sensor = buffer.getInt(slot + SharedSampleRing.SENSOR);
+			sample.x = buffer.getFloat(slot + SharedSampleRing.VALUES);
+			sample.y = buffer.getFloat(slot + SharedSampleRing.VALUES + 4);
+			sample.z = buffer.getFloat(slot + SharedSampleRing.VALUES + 8);
+			sample.alpha = buffer.getFloat(slot + SharedSampleRing.VALUES + 12);
+			sample.beta = buffer.getFloat(slot + SharedSampleRing.VALUES + 16);
+			sample.gamma = buffer.getFloat(slot + SharedSampleRing.VALUES + 20);
+			
+			VarHandle.loadLoadFence();
+			long after = buffer.getLong(slot + SharedSampleRing.SEQUENCE);
+			
+			if(before == expected && after == expected){
+				sample.number = next++;
+				return true;
+			}
+			
+			if(before > expected || after > expected){//Overwritten while (or before) it was read
+				lost++;
+				next++;
+			}else{//Published to the cursor but not yet complete, which only happens if the writer died mid write
+				return false;
+			}
+		}
+	}
+	
+	/**
+	 * @return cursor - The number of samples the writer has published
+	 */
+	public long getCursor(){
+		long cursor = buffer.getLong(SharedSampleRing.CURSOR);
+		VarHandle.loadLoadFence();
+		
+		return cursor;
+	}
+	
+	/**
+	 * @return lost - The number of samples overwritten before they could be read
+	 */
+	public long getLost(){
+		return lost;
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+}
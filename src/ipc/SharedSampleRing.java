@@ -0,0 +1,203 @@
+/**
+ * Publishes sensor samples to other processes through a memory mapped ring buffer
+ * (normally under /dev/shm). This process is the only writer, while any number of
+ * local processes can map the file and read the samples in place, with no copies
+ * or system calls per sample. Each slot is guarded by a sequence lock, so readers
+ * never see a half written sample.
+ *
+ * The file layout is fixed, with every field little endian:
+ *
+ * Header (64 bytes)
+ *   0  int32  magic        0x494D5552 ("RUMI" in memory), written last once the ring is ready
+ *   4  int32  version      1
+ *   8  int32  slot count   a power of two
+ *   12 int32  slot size    64
+ *   16 int32  channels     6
+ *   20 int32  reserved
+ *   24 int64  cursor       the number of samples published so far, moved once the sample is complete
+ *   32        reserved up to 64
+ *
+ * Slot n % slot count, at 64 + (n % slot count) * 64, for sample n
+ *   0  int64  sequence     2n + 1 while sample n is written, 2n + 2 once it is complete
+ *   8  int64  timestamp    when the sample was taken, in nanoseconds on CLOCK_MONOTONIC
+ *   16 int32  sensor       the id of the sensor the sample came from
+ *   20 int32  reserved
+ *   24 f32    x acceleration (g)
+ *   28 f32    y acceleration (g)
+ *   32 f32    z acceleration (g)
+ *   36 f32    alpha, rotation about x (radians)
+ *   40 f32    beta, rotation about y (radians)
+ *   44 f32    gamma, rotation about z (radians)
+ *   48        reserved up to 64
+ *
+ * To read sample n: read the sequence, then the fields, then the sequence again. The
+ * sample is valid if both reads equal 2n + 2; a larger value means it was overwritten
+ * before it could be read, a smaller one that it isn't complete yet
+ */
+
+package ipc;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+public class SharedSampleRing implements Closeable {
+
+	public static final String defaultPath = "/dev/shm/pi-robotics-imu";
+
+	public static final int magic = 0x494D5552;
+	public static final int version = 1;
+
+	public static final int headerSize = 64;
+	public static final int slotSize = 64;
+	public static final int channels = 6;
+
+	//Header offsets
+	static final int MAGIC = 0;
+	static final int VERSION = 4;
+	static final int SLOT_COUNT = 8;
+	static final int SLOT_SIZE = 12;
+	static final int CHANNELS = 16;
+	static final int CURSOR = 24;
+
+	//Slot offsets
+	static final int SEQUENCE = 0;
+	static final int TIMESTAMP = 8;
+	static final int SENSOR = 16;
+	static final int VALUES = 24;
+
+	private final RandomAccessFile file;
+	private final FileLock lock;//Held while this is the writer, so two writers can't share the ring
+	private final MappedByteBuffer buffer;//The mapped file
+
+	private final int mask;//Turns a sample number into a slot
+	private long cursor;//The number of samples published
+
+	/**
+	 * Creates (or takes over) the ring file. Only one writer may hold the ring at a time. The file
+	 * is never shrunk, so a reader still mapping a larger ring from an earlier run can't fault
+	 *
+	 * @param path - The file to map, normally under /dev/shm
+	 * @param slots - The number of samples kept, a power of two
+	 * @throws IOException - If the file can't be mapped, or another writer holds the ring
+	 */
+	public SharedSampleRing(String path, int slots) throws IOException {
+		if(slots < 2 || Integer.bitCount(slots) != 1){
+			throw new IllegalArgumentException("Slot count must be a power of two: " + slots);
+		}
+
+		mask = slots - 1;
+
+		int size = headerSize + slots * slotSize;
+
+		file = new RandomAccessFile(new File(path), "rw");
+
+		try {
+			lock = file.getChannel().tryLock();
+		} catch (OverlappingFileLockException e) {
+			file.close();
+			throw new IOException(path + " is already being written by this process");
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+
+		if(lock == null){
+			file.close();
+			throw new IOException(path + " is already being written by another process");
+		}
+
+		if(file.length() < size){
+			file.setLength(size);
+		}
+
+		buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		//Hide the ring from readers while it is set up
+		buffer.putInt(MAGIC, 0);
+		VarHandle.storeStoreFence();
+
+		for(int i = headerSize; i < size; i += 8){
+			buffer.putLong(i, 0);
+		}
+
+		buffer.putInt(VERSION, version);
+		buffer.putInt(SLOT_COUNT, slots);
+		buffer.putInt(SLOT_SIZE, slotSize);
+		buffer.putInt(CHANNELS, channels);
+		buffer.putLong(CURSOR, 0);
+
+		VarHandle.storeStoreFence();
+		buffer.putInt(MAGIC, magic);
+
+		cursor = 0;
+	}
+
+	/**
+	 * Publishes a sample. Safe to call from several sensor threads, which take turns as the writer
+	 *
+	 * @param sensor - The id of the sensor the sample came from
+	 * @param timestamp - The time the sample was taken, in nanoseconds (System.nanoTime)
+	 * @param x - The x acceleration (g)
+	 * @param y - The y acceleration (g)
+	 * @param z - The z acceleration (g)
+	 * @param alpha - The rotation about x (radians)
+	 * @param beta - The rotation about y (radians)
+	 * @param gamma - The rotation about z (radians)
+	 */
+	public synchronized void publish(int sensor, long timestamp, float x, float y, float z, float alpha, float beta, float gamma){
+		long n = cursor;
+		int slot = headerSize + (int)(n & mask) * slotSize;
+
+		buffer.putLong(slot + SEQUENCE, 2 * n + 1);//Readers now know the slot is being written
+		VarHandle.storeStoreFence();
+
+		buffer.putLong(slot + TIMESTAMP, timestamp);
+		buffer.putInt(slot + SENSOR, sensor);
+		buffer.putFloat(slot + VALUES, x);
+		buffer.putFloat(slot + VALUES + 4, y);
+		buffer.putFloat(slot + VALUES + 8, z);
+		buffer.putFloat(slot + VALUES + 12, alpha);
+		buffer.putFloat(slot + VALUES + 16, beta);
+		buffer.putFloat(slot + VALUES + 20, gamma);
+
+		VarHandle.storeStoreFence();
+		buffer.putLong(slot + SEQUENCE, 2 * n + 2);
+
+		cursor = n + 1;
+		VarHandle.storeStoreFence();//A reader that sees the cursor past the sample sees it complete
+		buffer.putLong(CURSOR, cursor);
+	}
+
+	/**
+	 * @return cursor - The number of samples published
+	 */
+	public synchronized long getCursor(){
+		return cursor;
+	}
+
+	/**
+	 * @return slots - The number of samples kept
+	 */
+	public int getSlots(){
+		return mask + 1;
+	}
+
+	/**
+	 * Gives up the ring and closes the file. The mapping stays valid until it is garbage collected, and the file stays for readers
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.release();
+		file.close();
+	}
+
+}
@@ -1,37 +1,97 @@
 package main;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
+
+import filters.FilterBank;
+import filters.OneEuroFilter;
+import gestures.GestureDetector;
+import io.GestureMouseBinding;
 import io.MouseController;
+import io.TiltMapping;
+import ipc.SharedSampleRing;
+import sensors.CalibrationStore;
 import sensors.MPU6050;
 import sensors.SensorController;
+import toolbox.Precision;
 
 public class Main {
 	
 	public static void main(String[] args){
-		SensorController sc = new SensorController();//The controller for the sensors
+		List<String> options = Arrays.asList(args);
+		boolean trainingRun = options.contains("--training-run");//Exits after the first sample, used to build the class data sharing archive
+		
+		SensorController sc = new SensorController();//The controller for the sensors, only I2C is used so the Gpio is never started
+		sc.prefetchI2C();
+		
+		//Starting AWT for the mouse is slow, so it happens alongside the sensor start up
+		CompletableFuture<MouseController> mouse = CompletableFuture.supplyAsync(() -> new MouseController(500, 500));
+		
+		I2CBus bus;
+		try {
+			bus = sc.getBus();
+		} catch (UnsupportedBusNumberException | IOException e) {
+			System.err.println("Could not open the I2C bus: " + e);
+			System.exit(1);
+			return;
+		}
+		
+		//The offsets found the first time are reused, delete the file to calibrate again
+		CalibrationStore calibrations = new CalibrationStore(CalibrationStore.defaultFile);
 
-		MPU6050 demoMpu = new MPU6050(sc.getBus(), 0x68);//An mpu used specifically for the demo
+		MPU6050 demoMpu = new MPU6050(bus, 0x68, calibrations);//An mpu used specifically for the demo, started once it is configured
+		demoMpu.setFilter(new FilterBank(3, () -> new OneEuroFilter(1.0, 0.5, 1.0)));//Steadies the cursor without lagging behind fast movements
+		demoMpu.setPrecision(Precision.POLYNOMIAL);//The cursor only moves in whole pixels, so the fastest mode is plenty
+		
+		MouseController mc = mouse.join();
+		TiltMapping mapping = new TiltMapping(10);//Tilting moves the cursor 10 pixels per radian every frame
 		
-		MouseController mc = new MouseController(500, 500);
+		//Taps and shakes click the mouse, the FIFO is needed to catch samples fast enough to see taps
+		GestureDetector gestures = new GestureDetector();
+		gestures.addListener(new GestureMouseBinding(mc));
+		demoMpu.setGestureDetector(gestures);
+		
+		try {
+			demoMpu.enableFifo();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
 		
-		while(!demoMpu.isCalibrated()){
+		//Shares the samples with the other processes on the robot when run with --shm
+		if(options.contains("--shm")){
 			try {
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
+				demoMpu.setPublisher(new SharedSampleRing(SharedSampleRing.defaultPath, 4096), 0);
+			} catch (IOException e) {
 				e.printStackTrace();
 			}
 		}
 		
+		demoMpu.start();//Every sample, the first included, now goes through the whole pipeline
+		
+		try {
+			if(demoMpu.awaitFirstSample(30_000)){
+				reportStartup(demoMpu);
+			}else{
+				System.err.println("No samples from the mpu6050");
+			}
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+		
 		while(true){
 //			System.out.println(demoMpu.getAlpha() + " " + demoMpu.getBeta() + " " + demoMpu.getGamma());
 			
-			double x = 1.57 - demoMpu.getAlpha();
-			double y = demoMpu.getBeta() - 1.57;
+			mapping.move(demoMpu.getAlpha(), demoMpu.getBeta(), mc);
 			
-			x *= 10;
-			y *= 10;
-			
-//			System.out.println(x + " " + y);
-			mc.offsetMouse((int)x, (int)y);
+			if(trainingRun){//Every class the loop needs is loaded now
+				System.exit(0);
+			}
 			
 			try {
 				Thread.sleep(1000 / 60);
@@ -41,5 +101,17 @@ public class Main {
 		}
 		
 	}
+	
+	/**
+	 * Prints the time from the JVM starting to the first sample
+	 * 
+	 * @param mpu - The sensor, which has taken its first sample
+	 */
+	private static void reportStartup(MPU6050 mpu){
+		long sampleAge = (System.nanoTime() - mpu.getFirstSampleTime()) / 1_000_000;//How long ago the sample was taken (ms)
+		long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+		
+		System.out.println("Time to first sample: " + (System.currentTimeMillis() - sampleAge - jvmStart) + "ms");
+	}
 
 }
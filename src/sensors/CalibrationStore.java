@@ -0,0 +1,105 @@
+/**
+ * Keeps the calibration offsets of the sensors in a properties file between runs,
+ * so that a restarted robot can use the offsets it found last time rather than
+ * calibrating again before its first sample
+ */
+
+package sensors;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class CalibrationStore {
+
+	private static final Logger log = Logger.getLogger(CalibrationStore.class.getName());
+
+	public static final File defaultFile = new File(System.getProperty("user.home"), ".pi-robotics/calibration.properties");
+
+	private final File file;//The properties file
+	private final Properties offsets = new Properties();//The stored offsets, keyed by sensor and axis
+
+	/**
+	 * Loads the stored offsets, starting empty if the file doesn't exist or can't be read
+	 *
+	 * @param file - The properties file
+	 */
+	public CalibrationStore(File file){
+		this.file = file;
+
+		if(file.isFile()){
+			try(InputStream in = new FileInputStream(file)){
+				offsets.load(in);
+			} catch (IOException e) {
+				log.log(Level.WARNING, "Could not read the calibration offsets from " + file, e);
+			}
+		}
+	}
+
+	/**
+	 * @param sensor - The key of the sensor, e.g. "mpu6050.1.68"
+	 * @return offsets - The stored x, y and z offsets, or null if the sensor hasn't been calibrated
+	 */
+	public synchronized short[] get(String sensor){
+		String x = offsets.getProperty(sensor + ".x");
+		String y = offsets.getProperty(sensor + ".y");
+		String z = offsets.getProperty(sensor + ".z");
+
+		if(x == null || y == null || z == null){
+			return null;
+		}
+
+		try {
+			return new short[]{Short.parseShort(x), Short.parseShort(y), Short.parseShort(z)};
+		} catch (NumberFormatException e) {
+			log.warning("Ignoring the malformed calibration offsets of " + sensor);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the offsets of a sensor and saves the file. The file is replaced in one step,
+	 * so a power cut while saving leaves the old offsets rather than a truncated file
+	 *
+	 * @param sensor - The key of the sensor
+	 * @param x - The x offset
+	 * @param y - The y offset
+	 * @param z - The z offset
+	 */
+	public synchronized void put(String sensor, short x, short y, short z){
+		offsets.setProperty(sensor + ".x", Short.toString(x));
+		offsets.setProperty(sensor + ".y", Short.toString(y));
+		offsets.setProperty(sensor + ".z", Short.toString(z));
+
+		File directory = file.getAbsoluteFile().getParentFile();
+		File temporary = new File(directory, file.getName() + ".tmp");
+
+		try {
+			directory.mkdirs();
+
+			try(OutputStream out = new FileOutputStream(temporary)){
+				offsets.store(out, "Sensor calibration offsets");
+			}
+
+			if(!temporary.renameTo(file)){
+				throw new IOException("Could not replace " + file);
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "Could not save the calibration offsets to " + file, e);
+		}
+	}
+
+	/**
+	 * @return file - The properties file
+	 */
+	public File getFile(){
+		return file;
+	}
+
+}
@@ -0,0 +1,24 @@
+package sensors;
+
+/**
+ * Interface for anything wanting to be told when a contact sensor is pressed or
+ * released. Called on the GPIO event thread as soon as the edge is accepted, so
+ * implementations should return quickly
+ */
+
+public interface ContactListener {
+	
+	/**
+	 * @param sensor - The sensor that was pressed
+	 * @param timestamp - The time of the edge, in nanoseconds
+	 */
+	public abstract void contactPressed(ContactSensor sensor, long timestamp);
+	
+	/**
+	 * @param sensor - The sensor that was released
+	 * @param timestamp - The time of the edge, in nanoseconds
+	 * @param duration - How long the sensor was pressed for, in nanoseconds
+	 */
+	public abstract void contactReleased(ContactSensor sensor, long timestamp, long duration);
+	
+}
@@ -0,0 +1,349 @@
+/**
+ * A contact (or limit) switch connected to a GPIO pin. Edges are delivered by pi4j
+ * listeners rather than polling, and debounced in software using their timestamps:
+ * the first edge of a change is accepted and published straight away, and the bounces
+ * that follow within the debounce time are ignored. When the debounce time is over the
+ * level is checked again, so a change hidden among the bounces is published then rather
+ * than waiting for the next edge
+ */
+
+package sensors;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import toolbox.MyMath;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.GpioPinDigitalInput;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinPullResistance;
+import com.pi4j.io.gpio.event.GpioPinDigitalStateChangeEvent;
+import com.pi4j.io.gpio.event.GpioPinListenerDigital;
+
+public class ContactSensor implements Sensor, GpioPinListenerDigital {
+
+	public static final long defaultDebounce = 5_000_000L;//The default debounce time (5ms)
+
+	//Checks the level of every sensor with a pin once its debounce time is over
+	private static final ScheduledExecutorService settler = Executors.newSingleThreadScheduledExecutor(task -> {
+		Thread thread = new Thread(task, "Contact debounce");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private Type type = Type.CONTACT;//The type of sensor
+
+	private final String name;//The name of the sensor
+	private final long debounce;//How long after an accepted edge other edges are ignored (ns)
+	private final boolean activeLow;//Whether the pin reads low when pressed (switch to ground with a pull up)
+
+	private GpioController gpio;//The gpio controller the pin belongs to, null when fed edges directly
+	private GpioPinDigitalInput input;//The pin the switch is connected to, null when fed edges directly
+
+	private final List<ContactListener> listeners = new CopyOnWriteArrayList<ContactListener>();
+
+	private boolean active;//Whether the sensor is listening for edges
+
+	private boolean started;//Whether any edge has been accepted
+	private boolean pressed;//The debounced state of the switch
+	private long lastEdge;//The time of the last accepted edge (ns)
+
+	private boolean hiddenEdge;//Whether the switch changed back during the debounce time without a later edge
+	private long hiddenTime;//The time of that change (ns)
+
+	private boolean settlePending;//Whether a check of the level is scheduled
+
+	//Statistics
+	private long timestamp;//The time of the latest edge seen (ns)
+	private int presses;//The number of presses
+	private long bounces;//The number of edges ignored as bounces
+	private long pressStart;//The time of the current (or last) press (ns)
+	private long lastDuration;//The duration of the last complete press (ns)
+	private long longestDuration;//The duration of the longest press (ns)
+	private long totalDuration;//The combined duration of all complete presses (ns)
+
+	/**
+	 * Provisions the pin with a pull up resistor, so the switch should connect it to ground
+	 *
+	 * @param gpio - The gpio controller
+	 * @param pin - The pin the switch is connected to
+	 * @param name - The name of the sensor
+	 */
+	public ContactSensor(GpioController gpio, Pin pin, String name){
+		this(gpio, pin, name, defaultDebounce);
+	}
+
+	/**
+	 * Provisions the pin with a pull up resistor, so the switch should connect it to ground
+	 *
+	 * @param gpio - The gpio controller
+	 * @param pin - The pin the switch is connected to
+	 * @param name - The name of the sensor
+	 * @param debounce - How long after an accepted edge other edges are ignored, in nanoseconds
+	 */
+	public ContactSensor(GpioController gpio, Pin pin, String name, long debounce){
+		this(name, debounce, true);
+
+		this.gpio = gpio;
+
+		input = gpio.provisionDigitalInputPin(pin, name, PinPullResistance.PULL_UP);
+		input.setDebounce(0);//Debouncing is done here, with timestamps
+		input.addListener(this);
+	}
+
+	/**
+	 * Creates a sensor without a pin, fed edges through edge() (e.g. by a simulation). The edges carry
+	 * their own times, which needn't be real, so the sensor doesn't settle by itself: whoever feeds it
+	 * calls settle() once the debounce time is over
+	 *
+	 * @param name - The name of the sensor
+	 * @param debounce - How long after an accepted edge other edges are ignored, in nanoseconds
+	 * @param activeLow - Whether a low level means the switch is pressed
+	 */
+	public ContactSensor(String name, long debounce, boolean activeLow){
+		this.name = name;
+		this.debounce = debounce;
+		this.activeLow = activeLow;
+
+		active = true;
+	}
+
+	/**
+	 * Called by pi4j on every change of the pin
+	 */
+	@Override
+	public void handleGpioPinDigitalStateChangeEvent(GpioPinDigitalStateChangeEvent event){
+		edge(event.getState().isHigh(), System.nanoTime());
+	}
+
+	/**
+	 * Processes a raw edge of the pin, publishing it if it isn't a bounce
+	 *
+	 * @param high - The level of the pin after the edge
+	 * @param time - The time of the edge, in nanoseconds
+	 */
+	public synchronized void edge(boolean high, long time){
+		if(!active){
+			return;
+		}
+
+		boolean level = high != activeLow;//Whether this edge presses the switch
+		timestamp = time;
+
+		if(started && time - lastEdge < debounce){//A bounce of the last accepted edge
+			bounces++;
+
+			//Remember if the bounces left the switch in the other state, so it can be caught up on later
+			hiddenEdge = level != pressed;
+			hiddenTime = time;
+			return;
+		}
+
+		//The switch changed during the last debounce time and hasn't been checked since, so catch up first
+		if(started && hiddenEdge){
+			accept(!pressed, hiddenTime);
+		}
+
+		if(started && level == pressed){//Nothing has changed
+			return;
+		}
+
+		accept(level, time);
+	}
+
+	/**
+	 * Publishes the level the switch settled on during the last debounce time, if it differs from the
+	 * debounced state. Runs by itself once the debounce time is over for a sensor with a pin, a sensor
+	 * fed through edge() has to be settled by whoever feeds it
+	 *
+	 * @param time - The current time, in nanoseconds. Nothing is done before the debounce time is over
+	 */
+	public synchronized void settle(long time){
+		if(!active || !started || time - lastEdge < debounce){
+			return;
+		}
+
+		if(hiddenEdge){
+			accept(!pressed, hiddenTime);
+		}
+
+		//The pin itself is the best record of the level, in case an edge was missed
+		if(input != null){
+			boolean level = input.isHigh() != activeLow;
+
+			if(level != pressed){
+				accept(level, time);
+			}
+		}
+	}
+
+	/**
+	 * Settles the level once the debounce time after the last accepted edge has passed. Edges from the pin are
+	 * timed by System.nanoTime, so the same clock tells when that is
+	 */
+	private synchronized void settleAfterDebounce(){
+		long now = System.nanoTime();
+		long remaining = lastEdge + debounce - now;
+
+		if(active && remaining > 0){//Another edge was accepted since this was scheduled
+			settler.schedule(this::settleAfterDebounce, remaining, TimeUnit.NANOSECONDS);
+			return;
+		}
+
+		settlePending = false;
+		settle(now);
+	}
+
+	/**
+	 * Updates the state and statistics and publishes the edge
+	 */
+	private void accept(boolean level, long time){
+		started = true;
+		pressed = level;
+		lastEdge = time;
+		hiddenEdge = false;
+
+		if(input != null && !settlePending){
+			settlePending = true;
+			settler.schedule(this::settleAfterDebounce, debounce, TimeUnit.NANOSECONDS);
+		}
+
+		if(level){
+			presses++;
+			pressStart = time;
+
+			for(ContactListener listener : listeners){
+				listener.contactPressed(this, time);
+			}
+		}else{
+			lastDuration = time - pressStart;
+			totalDuration += lastDuration;
+			longestDuration = Math.max(longestDuration, lastDuration);
+
+			for(ContactListener listener : listeners){
+				listener.contactReleased(this, time, lastDuration);
+			}
+		}
+	}
+
+	/**
+	 * @param listener - Will be told of every press and release
+	 */
+	public void addListener(ContactListener listener){
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener - Will no longer be told of presses and releases
+	 */
+	public void removeListener(ContactListener listener){
+		listeners.remove(listener);
+	}
+
+	/**
+	 *
+	 * @return pressed - Whether the switch is pressed (debounced)
+	 */
+	public synchronized boolean isPressed(){
+		return pressed;
+	}
+
+	/**
+	 *
+	 * @return presses - The number of times the switch has been pressed
+	 */
+	public synchronized int getPresses(){
+		return presses;
+	}
+
+	/**
+	 *
+	 * @return bounces - The number of edges ignored as bounces
+	 */
+	public synchronized long getBounces(){
+		return bounces;
+	}
+
+	/**
+	 *
+	 * @return duration - How long the last complete press lasted, in nanoseconds
+	 */
+	public synchronized long getLastPressDuration(){
+		return lastDuration;
+	}
+
+	/**
+	 *
+	 * @return duration - How long the longest press lasted, in nanoseconds
+	 */
+	public synchronized long getLongestPressDuration(){
+		return longestDuration;
+	}
+
+	/**
+	 *
+	 * @return duration - The time spent pressed over all complete presses, in nanoseconds
+	 */
+	public synchronized long getTotalPressDuration(){
+		return totalDuration;
+	}
+
+	/**
+	 *
+	 * @return name - The name of the sensor
+	 */
+	public String getName(){
+		return name;
+	}
+
+	/**
+	 * Returns the relevant data associated with this sensor as a string
+	 */
+	@Override
+	public synchronized String getData(){
+		return name + " | Pressed: " + pressed + " | Presses: " + presses
+				+ " | Last press: " + MyMath.getDoubleTo(2, lastDuration / 1e6) + "ms";
+	}
+
+	/**
+	 * Stops listening to the pin and releases it
+	 */
+	@Override
+	public synchronized void deactivate(){
+		active = false;
+
+		if(input != null){
+			input.removeListener(this);
+			gpio.unprovisionPin(input);
+			input = null;
+		}
+	}
+
+	@Override
+	public boolean isActive(){
+		return active;
+	}
+
+	@Override
+	public boolean isCalibrated(){
+		return true;
+	}
+
+	@Override
+	public synchronized long getTimestamp(){
+		return timestamp;
+	}
+
+	/**
+	 * Returns the type of sensor that this is
+	 */
+	@Override
+	public Type getType(){
+		return type;
+	}
+
+}
@@ -7,34 +7,84 @@
 package sensors;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
+import events.CalibrationEvent;
+import events.I2CTransactionEvent;
+import events.SensorLoopEvent;
 import toolbox.MyMath;
+import toolbox.Precision;
+import filters.FilterBank;
+import gestures.GestureDetector;
+import ipc.SharedSampleRing;
 
 import com.pi4j.io.i2c.I2CBus;
 import com.pi4j.io.i2c.I2CDevice;
 
 public class MPU6050 extends Thread implements Sensor {
 	
+	private static final Logger log = Logger.getLogger(MPU6050.class.getName());
+	
 	private Type type = Type.MPU6050;//The type of sensor
 	
 	//The expected offsets of the sensor when it is oriented normally in space
 	private static final short expectedXOffset = 0;
     private static final short expectedYOffset = 0;
     private static final short expectedZOffset = 16384;
+    
+    private static final int historySize = 1024;//The number of samples retained in the history
+    private static final int fifoSize = 1024;//The size of the FIFO buffer on the chip, in bytes
+    private static final int fifoSampleSize = 6;//The bytes per sample in the FIFO buffer (x, y, z accelerations)
+    
+    private static final int calibrationSamples = 100;//The number of samples averaged to find the offsets
+    private static final long calibrationSpacing = 2;//The time between calibration samples (ms), long enough for the low pass filter to settle
 	
 	private I2CBus bus = null;//The I2C bus
     private I2CDevice mpu6050 = null;//The I2C device
+    private final RegisterMap registers = createRegisterMap();//The shadow copy of the configuration registers
     
     //The recorded offsets found after calibration of the sensors is complete
     private short xOffset;
     private short yOffset;
     private short zOffset;
     
+    private final CalibrationStore calibrations;//Keeps the offsets between runs, may be null
+    
     private double alpha;//x rotation
     private double beta;//y rotation
     private double gamma;//z rotation
     
-    private boolean calibrated;//Whether the sensor is calibrated
+    private long readTime;//The host time of the latest register read, in nanoseconds
+    private volatile long timestamp;//The time at which the latest sample was taken, in nanoseconds
+    private final SampleHistory history = new SampleHistory(historySize, 3);//The recent accelerations (g) and their timestamps
+    
+    private final byte[] dataBuffer = new byte[6];//Holds the raw acceleration registers
+    private final byte[] fifoBuffer = new byte[fifoSize];//Holds the raw contents of the FIFO buffer
+    private final byte[] statusBuffer = new byte[1];//Holds the interrupt status register
+    private final long[] fifoTimes = new long[fifoSize / fifoSampleSize];//The reconstructed timestamps of a FIFO batch
+    
+    private volatile boolean fifoEnabled;//Whether samples are collected in batches from the FIFO buffer, set after the clock
+    private SampleClock clock;//Reconstructs the timestamps of FIFO samples, published by fifoEnabled
+    
+    private volatile FilterBank filter;//Smooths the x, y and z accelerations before the orientation is found, may be null
+    
+    private volatile GestureDetector gestures;//Looks for gestures in the accelerations, may be null
+    private volatile boolean hardwareFreefall;//Whether the chip's freefall detection is enabled
+    
+    private volatile SharedSampleRing publisher;//Shares every sample with other processes, may be null
+    private int publisherId;//The id the samples are published under
+    
+    private volatile Precision precision = Precision.EXACT;//The precision the orientation is calculated with
+    
+    private final CountDownLatch firstSample = new CountDownLatch(1);//Released by the first sample after calibration
+    private boolean sampled;//Whether a sample has been taken since calibration
+    private volatile long firstSampleTime;//The time the first sample was taken, in nanoseconds
+    
+    private long sequence;//The number of samples taken, for the Flight Recorder events
+    
+    private volatile boolean calibrated;//Whether the sensor is calibrated
     private boolean running;//Whether the sensor is currently operating
 
     /**
@@ -46,8 +96,46 @@ public class MPU6050 extends Thread implements Sensor {
      * @param address - The I2C address of the sensor
      */
     public MPU6050(I2CBus bus, int address){
+    	this(bus, address, null, false);
+    	
+    	start();
+    }
+    
+    /**
+     * Initializes the mpu6050, taking its offsets from the store if it has been calibrated before.
+     * The thread isn't started, so that the filters, gestures and FIFO can be set up before the
+     * first sample: call start() once the sensor is configured
+     * 
+     * @param bus
+     * @param address - The I2C address of the sensor
+     * @param calibrations - Keeps the offsets between runs, or null to calibrate every time
+     */
+    public MPU6050(I2CBus bus, int address, CalibrationStore calibrations){
+    	this(bus, address, calibrations, false);
+    }
+    
+    /**
+     * Initializes the mpu6050 with offsets found beforehand. No thread is started, so
+     * samples are only taken when poll is called (e.g. to benchmark the sensor)
+     * 
+     * @param bus
+     * @param address - The I2C address of the sensor
+     * @param xOffset - The x offset
+     * @param yOffset - The y offset
+     * @param zOffset - The z offset
+     */
+    public MPU6050(I2CBus bus, int address, short xOffset, short yOffset, short zOffset){
+    	this(bus, address, null, true);
+    	
+    	this.xOffset = xOffset;
+    	this.yOffset = yOffset;
+    	this.zOffset = zOffset;
+    }
+    
+    private MPU6050(I2CBus bus, int address, CalibrationStore calibrations, boolean calibrated){
     	
     	this.bus = bus;
+    	this.calibrations = calibrations;
     	
     	try {
 			initialize(address);
@@ -59,11 +147,9 @@ public class MPU6050 extends Thread implements Sensor {
     	
     	alpha = beta = gamma = 0;
     	
-    	calibrated = false;
+    	this.calibrated = calibrated;
     	running = true;
     	
-    	start();
-    	
     }
     
     /**
@@ -88,55 +174,86 @@ public class MPU6050 extends Thread implements Sensor {
      * @throws InterruptedException
      */
     private void configureMpu6050() throws IOException, InterruptedException {
-
-        //1 Waking the device up
-        writeConfigRegisterAndValidate(
-                "Waking up device",
-                "Wake-up config succcessfully written: ",
-                Registers.MPU6050_RA_PWR_MGMT_1,
-                RegisterValues.MPU6050_RA_PWR_MGMT_1);
-
-        //2 Configure sample rate
-        writeConfigRegisterAndValidate(
-                "Configuring sample rate",
-                "Sample rate succcessfully written: ",
-                Registers.MPU6050_RA_SMPLRT_DIV,
-                RegisterValues.MPU6050_RA_SMPLRT_DIV);
-
-        //3 Setting global config
-        writeConfigRegisterAndValidate(
-                "Setting global config (digital low pass filter)",
-                "Global config succcessfully written: ",
-                Registers.MPU6050_RA_CONFIG,
-                RegisterValues.MPU6050_RA_CONFIG);
-
-        //4 Configure Gyroscope
-        writeConfigRegisterAndValidate(
-                "Configuring gyroscope",
-                "Gyroscope config successfully written: ",
-                Registers.MPU6050_RA_GYRO_CONFIG,
-                RegisterValues.MPU6050_RA_GYRO_CONFIG);
-
-        //5 Configure Accelerometer
-        writeConfigRegisterAndValidate(
-                "Configuring accelerometer",
-                "Accelerometer config successfully written: ",
-                Registers.MPU6050_RA_ACCEL_CONFIG,
-                RegisterValues.MPU6050_RA_ACCEL_CONFIG);
-
-        //6 Configure interrupts
-        writeConfigRegisterAndValidate(
-                "Configuring interrupts",
-                "Interrupt config successfully written: ",
-                Registers.MPU6050_RA_INT_ENABLE,
-                RegisterValues.MPU6050_RA_INT_ENABLE);
-
-        //7 Configure low power operations
-        writeConfigRegisterAndValidate(
-                "Configuring low power operations",
-                "Low power operation config successfully written: ",
-                Registers.MPU6050_RA_PWR_MGMT_2,
-                RegisterValues.MPU6050_RA_PWR_MGMT_2);
+    	stageConfiguration(registers, hardwareFreefall);
+    	
+    	int transactions = registers.commit(mpu6050);
+    	log.fine(() -> "Configured mpu6050 at " + mpu6050.getAddress() + " in " + transactions + " transaction(s)");
+    }
+    
+    /**
+     * Reapplies the configuration, only writing the registers that have changed
+     * 
+     * @throws IOException
+     */
+    public void reconfigure() throws IOException {
+    	try {
+			configureMpu6050();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+    }
+    
+    /**
+     * Stages the configuration of the mpu6050, to be written by the next commit
+     * 
+     * @param registers - The register map of the device
+     * @param hardwareFreefall - Whether the chip's freefall detection is enabled, so its interrupt stays on
+     */
+    public static void stageConfiguration(RegisterMap registers, boolean hardwareFreefall){
+    	
+    	//1 Waking the device up (staged first so that it is written first)
+    	registers.stage(Registers.MPU6050_RA_PWR_MGMT_1, RegisterValues.MPU6050_RA_PWR_MGMT_1);
+    	
+    	//2 Configure sample rate
+    	registers.stage(Registers.MPU6050_RA_SMPLRT_DIV, RegisterValues.MPU6050_RA_SMPLRT_DIV);
+    	
+    	//3 Setting global config (digital low pass filter)
+    	registers.stage(Registers.MPU6050_RA_CONFIG, RegisterValues.MPU6050_RA_CONFIG);
+    	
+    	//4 Configure Gyroscope
+    	registers.stage(Registers.MPU6050_RA_GYRO_CONFIG, RegisterValues.MPU6050_RA_GYRO_CONFIG);
+    	
+    	//5 Configure Accelerometer
+    	registers.stage(Registers.MPU6050_RA_ACCEL_CONFIG, RegisterValues.MPU6050_RA_ACCEL_CONFIG);
+    	
+    	//6 Configure interrupts, for the features that are enabled
+    	if(hardwareFreefall){
+    		registers.stage(Registers.MPU6050_RA_FF_THR, RegisterValues.MPU6050_RA_FF_THR);
+    		registers.stage(Registers.MPU6050_RA_FF_DUR, RegisterValues.MPU6050_RA_FF_DUR);
+    	}
+    	registers.stage(Registers.MPU6050_RA_INT_ENABLE, interruptEnable(hardwareFreefall));
+    	
+    	//7 Configure low power operations
+    	registers.stage(Registers.MPU6050_RA_PWR_MGMT_2, RegisterValues.MPU6050_RA_PWR_MGMT_2);
+    }
+    
+    /**
+     * @param hardwareFreefall - Whether the chip's freefall detection is enabled
+     * @return interrupts - The value of the interrupt enable register
+     */
+    private static byte interruptEnable(boolean hardwareFreefall){
+    	return hardwareFreefall ? RegisterValues.MPU6050_RA_INT_ENABLE_FF : RegisterValues.MPU6050_RA_INT_ENABLE;
+    }
+    
+    /**
+     * Creates a shadow register map describing the mpu6050
+     * 
+     * @return registers - An empty register map for an mpu6050
+     */
+    public static RegisterMap createRegisterMap(){
+    	RegisterMap registers = new RegisterMap(Registers.COUNT);
+    	
+    	//Reading these changes the device
+    	registers.setUnreadable(Registers.INT_STATUS);
+    	registers.setUnreadable(Registers.FIFO_COUNT_H);
+    	registers.setUnreadable(Registers.FIFO_COUNT_H + 1);
+    	registers.setUnreadable(Registers.FIFO_R_W);
+    	
+    	//Reset bits
+    	registers.setSelfClearing(Registers.MPU6050_RA_PWR_MGMT_1, 0b10000000);
+    	registers.setSelfClearing(Registers.MPU6050_RA_USER_CTRL, 0b00000111);
+    	
+    	return registers;
     }
     
     /**
@@ -144,32 +261,57 @@ public class MPU6050 extends Thread implements Sensor {
      */
     public void run(){
     	
-    	//Calibrating the sensor
-    	System.out.println("Calibrating sensor...");
-        
-        calibrateSensorOffset();
-        System.out.println("Calibrated");
+    	//Calibrating the sensor, unless it has been before
+    	String key = calibrationKey(bus.getBusNumber(), mpu6050.getAddress());
+    	
+    	CalibrationEvent load = new CalibrationEvent();
+    	load.begin();
+    	short[] stored = calibrations == null ? null : calibrations.get(key);
+    	commitCalibration(load, CalibrationEvent.load, 0);
+    	
+    	if(stored != null){
+    		xOffset = stored[0];
+    		yOffset = stored[1];
+    		zOffset = stored[2];
+    		log.info(() -> "Using stored calibration from " + calibrations.getFile());
+    	}else{
+    		log.info("Calibrating sensor...");
+    		
+    		CalibrationEvent sample = new CalibrationEvent();
+    		sample.begin();
+    		calibrateSensorOffset();
+    		commitCalibration(sample, CalibrationEvent.sample, calibrationSamples);
+    		log.info("Calibrated");
+    		
+    		if(calibrations != null){
+    			CalibrationEvent store = new CalibrationEvent();
+    			store.begin();
+    			calibrations.put(key, xOffset, yOffset, zOffset);
+    			commitCalibration(store, CalibrationEvent.store, 0);
+    		}
+    	}
         calibrated = true;
         
-        System.out.println("Offsets: "
+        log.info(() -> "Offsets: "
         		+"\nx Offset: "+xOffset
         		+"\ny Offset: "+yOffset
-        		+"\nz Offset: "+zOffset); 
+        		+"\nz Offset: "+zOffset);
     	
     	while(running){//Loop forever
         	
-    		//
-        	short[] data = getSensorData();
-
-        	float xg = (data[0] + xOffset) / 16384f;
-        	float yg = (data[1] + yOffset) / 16384f;
-        	float zg = (data[2] + zOffset) / 16384f;
-        	
-        	float fg = (float)Math.sqrt(Math.pow(xg, 2) + Math.pow(yg, 2) + Math.pow(zg, 2));
-            
-            alpha = Math.acos(xg / fg);
-            beta = Math.acos(yg / fg);
-            gamma = Math.acos(zg / fg);
+    		SensorLoopEvent event = new SensorLoopEvent();
+    		long first = sequence;
+    		
+    		event.begin();
+    		poll();
+    		event.end();
+    		
+    		if(event.shouldCommit()){
+    			event.address = mpu6050.getAddress();
+    			event.samples = (int)(sequence - first);
+    			event.sequence = sequence;
+    			event.commit();
+    		}
             
             //Wait for the time defined in SensorController
             try {
@@ -181,6 +323,152 @@ public class MPU6050 extends Thread implements Sensor {
     	
     }
     
+    /**
+     * Takes the samples waiting on the sensor (one, or everything in the FIFO buffer) and
+     * updates the orientation, gestures and history with them
+     */
+    public void poll(){
+    	if(fifoEnabled){
+    		readFifo();
+    	}else{
+    		short[] data = getSensorData();
+    		update(data[0], data[1], data[2], readTime);
+    	}
+    	
+    	GestureDetector gestures = this.gestures;
+    	if(hardwareFreefall && gestures != null){
+    		try {
+    			readRegisters(Registers.INT_STATUS, statusBuffer, 1);
+    			
+    			gestures.hardwareStatus(statusBuffer[0] & 0xFF, System.nanoTime());
+    		} catch (IOException e) {
+    			e.printStackTrace();
+    		}
+    	}
+    }
+    
+    /**
+     * Applies the calibration offsets to a raw sample, records it and updates the orientation
+     * 
+     * @param x - The raw x acceleration
+     * @param y - The raw y acceleration
+     * @param z - The raw z acceleration
+     * @param time - The time the sample was taken, in nanoseconds
+     */
+    private void update(short x, short y, short z, long time){
+    	float xg = (x + xOffset) / 16384f;
+    	float yg = (y + yOffset) / 16384f;
+    	float zg = (z + zOffset) / 16384f;
+    	
+    	history.add(time, xg, yg, zg);
+    	
+    	GestureDetector gestures = this.gestures;
+    	if(gestures != null){
+    		gestures.process(xg, yg, zg, time);
+    	}
+    	
+    	FilterBank filter = this.filter;
+    	if(filter != null){
+    		xg = filter.filter(0, xg, time);
+    		yg = filter.filter(1, yg, time);
+    		zg = filter.filter(2, zg, time);
+    	}
+    	
+    	Precision precision = this.precision;
+    	double inverse = precision.invSqrt(xg * xg + yg * yg + zg * zg);//1 / the total acceleration
+        
+        alpha = precision.acos(xg * inverse);
+        beta = precision.acos(yg * inverse);
+        gamma = precision.acos(zg * inverse);
+        
+        timestamp = time;
+        sequence++;
+        
+        if(!sampled){
+        	sampled = true;
+        	firstSampleTime = time;
+        	firstSample.countDown();
+        }
+        
+        SharedSampleRing publisher = this.publisher;
+        if(publisher != null){
+        	publisher.publish(publisherId, time, xg, yg, zg, (float)alpha, (float)beta, (float)gamma);
+        }
+    }
+    
+    /**
+     * Sets the filters applied to the accelerations before the orientation is calculated.
+     * The history keeps the unfiltered accelerations
+     * 
+     * @param filter - A bank of (at least) 3 channels for x, y and z, or null to use the raw accelerations
+     */
+    public void setFilter(FilterBank filter){
+    	if(filter != null && filter.getChannels() < 3){
+    		throw new IllegalArgumentException("The filter needs a channel for each of x, y and z");
+    	}
+    	
+    	this.filter = filter;
+    }
+    
+    /**
+     * Sets the detector that is given every sample (unfiltered). Taps only last tens of milliseconds,
+     * so they are only caught with the FIFO enabled
+     * 
+     * @param gestures - The gesture detector, or null to stop detecting gestures
+     */
+    public void setGestureDetector(GestureDetector gestures){
+    	this.gestures = gestures;
+    }
+    
+    /**
+     * Turns on the chip's own freefall detection, which is reported to the gesture detector alongside the
+     * software detection. Freefall detection was dropped from later revisions of the MPU6050, whose freefall
+     * registers don't read back what was written. Then the interrupt is left off and only the software
+     * detection reports freefalls
+     * 
+     * @return enabled - Whether the chip detects freefalls, false if it has no freefall registers
+     * @throws IOException - If the bus fails
+     */
+    public boolean enableHardwareFreefall() throws IOException {
+    	registers.stage(Registers.MPU6050_RA_FF_THR, RegisterValues.MPU6050_RA_FF_THR);
+    	registers.stage(Registers.MPU6050_RA_FF_DUR, RegisterValues.MPU6050_RA_FF_DUR);
+    	registers.stage(Registers.MPU6050_RA_INT_ENABLE, interruptEnable(true));
+    	
+    	try {
+    		registers.commit(mpu6050);
+    	} catch (IOException e) {
+    		log.info(() -> "No hardware freefall detection on the mpu6050 at " + mpu6050.getAddress() + ": " + e.getMessage());
+    		
+    		//Make sure the interrupt is off again, this throws if the bus itself failed
+    		registers.stage(Registers.MPU6050_RA_INT_ENABLE, interruptEnable(false));
+    		registers.commit(mpu6050);
+    		return false;
+    	}
+    	
+    	hardwareFreefall = true;
+    	return true;
+    }
+    
+    /**
+     * Sets the ring that every sample (filtered accelerations and orientation) is published to, for other processes
+     * 
+     * @param publisher - The ring, or null to stop publishing
+     * @param id - The id to publish the samples under
+     */
+    public void setPublisher(SharedSampleRing publisher, int id){
+    	publisherId = id;
+    	this.publisher = publisher;
+    }
+    
+    /**
+     * Sets the precision the orientation is calculated with, see Precision for the error of each mode
+     * 
+     * @param precision - The precision to use
+     */
+    public void setPrecision(Precision precision){
+    	this.precision = precision;
+    }
+    
     /**
      * Sets the run method up to stop upon the next iteration
      * 
@@ -190,6 +478,52 @@ public class MPU6050 extends Thread implements Sensor {
     	running = false;
     }
     
+    /**
+     * Reads a burst of registers, recording the read as an I2CTransactionEvent (if Flight Recorder
+     * is recording them) whether or not it succeeds
+     * 
+     * @param register - The first register to read
+     * @param buffer - Filled with the registers, from the start
+     * @param bytes - The number of registers to read
+     * @throws IOException
+     */
+    private void readRegisters(int register, byte[] buffer, int bytes) throws IOException {
+    	I2CTransactionEvent event = new I2CTransactionEvent();
+    	event.begin();
+    	boolean failed = true;
+    	
+    	try {
+    		mpu6050.read(register, buffer, 0, bytes);
+    		failed = false;
+    	} finally {
+    		event.end();
+    		
+    		if(event.shouldCommit()){
+    			event.address = mpu6050.getAddress();
+    			event.register = register;
+    			event.bytes = bytes;
+    			event.sequence = sequence;
+    			event.failed = failed;
+    			event.commit();
+    		}
+    	}
+    }
+    
+    /**
+     * Ends a calibration phase event and records it, if Flight Recorder is recording them
+     */
+    private void commitCalibration(CalibrationEvent event, String phase, int samples){
+    	event.end();
+    	
+    	if(event.shouldCommit()){
+    		event.address = mpu6050.getAddress();
+    		event.phase = phase;
+    		event.samples = samples;
+    		event.sequence = sequence;
+    		event.commit();
+    	}
+    }
+    
     /**
      * Calibrates the sensor offset of the mpu
      * 
@@ -197,7 +531,7 @@ public class MPU6050 extends Thread implements Sensor {
      */
     private void calibrateSensorOffset(){
     	
-    	int tests = 20;//The number of tests to run
+    	int tests = calibrationSamples;//The number of tests to run
     	
     	int x = 0;
     	int y = 0;
@@ -210,9 +544,9 @@ public class MPU6050 extends Thread implements Sensor {
     		y += data[1];
     		z += data[2];
     		
-    		//Delay for a half-second so that all tests are not run near immediately (would make it redundant)
+    		//Delay so that each test reads a new sample (the chip samples at 1kHz) rather than the same one again
     		try {
-				Thread.sleep(500);
+				Thread.sleep(calibrationSpacing);
 			} catch (InterruptedException e) {
 				e.printStackTrace();
 			}
@@ -234,28 +568,95 @@ public class MPU6050 extends Thread implements Sensor {
      */
     private short[] getSensorData(){
     	
-    	//Set up the byte buffers
-    	byte[] xBuffer = new byte[2], yBuffer = new byte[2], zBuffer = new byte[2];
-    	
-    	//Read in the data
+    	//Read in all three axes in one transaction so that they belong to the same instant
+    	long start = System.nanoTime();
     	try {
-			mpu6050.read(Registers.ACCEL_XOUT_H, xBuffer, 0, 2);
-			mpu6050.read(Registers.ACCEL_YOUT_H, yBuffer, 0, 2);
-	    	mpu6050.read(Registers.ACCEL_ZOUT_H, zBuffer, 0, 2);
+			readRegisters(Registers.ACCEL_XOUT_H, dataBuffer, 6);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+    	readTime = start + (System.nanoTime() - start) / 2;//The sample is taken to be the midpoint of the transaction
   
     	//Convert the byte arrays into shorts
-    	short x = (short)(((xBuffer[0] & 0xFF) << 8) | (xBuffer[1] & 0xFF));
-    	short y = (short)(((yBuffer[0] & 0xFF) << 8) | (yBuffer[1] & 0xFF));
-    	short z = (short)(((zBuffer[0] & 0xFF) << 8) | (zBuffer[1] & 0xFF));
+    	short x = (short)(((dataBuffer[0] & 0xFF) << 8) | (dataBuffer[1] & 0xFF));
+    	short y = (short)(((dataBuffer[2] & 0xFF) << 8) | (dataBuffer[3] & 0xFF));
+    	short z = (short)(((dataBuffer[4] & 0xFF) << 8) | (dataBuffer[5] & 0xFF));
     	
     	return new short[]{x, y, z};
     }
     
     /**
-     * Writes the specified data to the given register
+     * Switches data collection over to the FIFO buffer, so that every sample taken by the chip is
+     * collected (in batches) and timestamped from the chip's sample clock. The FIFO holds 170 samples, so the
+     * sample rate divided by SensorController.refreshRate must stay below that
+     * 
+     * @throws IOException
+     */
+    public void enableFifo() throws IOException {
+    	clock = new SampleClock(getSamplePeriod());
+    	
+    	registers.stage(Registers.MPU6050_RA_FIFO_EN, RegisterValues.MPU6050_RA_FIFO_EN);
+    	registers.stage(Registers.MPU6050_RA_USER_CTRL, RegisterValues.MPU6050_RA_USER_CTRL);
+    	registers.commit(mpu6050);
+    	
+    	fifoEnabled = true;
+    }
+    
+    /**
+     * Drains the FIFO buffer, timestamping each sample using the sample clock
+     */
+    private void readFifo(){
+    	try {
+    		long start = System.nanoTime();
+    		readRegisters(Registers.FIFO_COUNT_H, fifoBuffer, 2);
+    		long time = start + (System.nanoTime() - start) / 2;
+    		
+    		int count = ((fifoBuffer[0] & 0xFF) << 8) | (fifoBuffer[1] & 0xFF);
+    		
+    		if(count >= fifoSize){//The buffer overflowed and samples were lost, so restart it and the timeline
+    			writeRegister(Registers.MPU6050_RA_USER_CTRL, RegisterValues.MPU6050_RA_USER_CTRL);
+    			clock.reset();
+    			return;
+    		}
+    		
+    		int samples = count / fifoSampleSize;
+    		if(samples == 0){
+    			return;
+    		}
+    		
+    		readRegisters(Registers.FIFO_R_W, fifoBuffer, samples * fifoSampleSize);
+    		clock.reconstruct(time, samples, fifoTimes);
+    		
+    		for(int i = 0; i < samples; i++){
+    			int b = i * fifoSampleSize;
+    			
+    			short x = (short)(((fifoBuffer[b] & 0xFF) << 8) | (fifoBuffer[b + 1] & 0xFF));
+    			short y = (short)(((fifoBuffer[b + 2] & 0xFF) << 8) | (fifoBuffer[b + 3] & 0xFF));
+    			short z = (short)(((fifoBuffer[b + 4] & 0xFF) << 8) | (fifoBuffer[b + 5] & 0xFF));
+    			
+    			update(x, y, z, fifoTimes[i]);
+    		}
+    	} catch (IOException e) {
+    		e.printStackTrace();
+    	}
+    }
+    
+    /**
+     * Calculates the configured sample period from the sample rate divider and low pass filter settings
+     * 
+     * @return period - The sample period, in nanoseconds
+     */
+    public double getSamplePeriod(){
+    	int dlpf = RegisterValues.MPU6050_RA_CONFIG & 0b111;
+    	
+    	//The gyroscope output rate drives the sample rate, 8kHz with the low pass filter off and 1kHz with it on
+    	double outputRate = (dlpf == 0 || dlpf == 7) ? 8000 : 1000;
+    	
+    	return 1e9 * (1 + (RegisterValues.MPU6050_RA_SMPLRT_DIV & 0xFF)) / outputRate;
+    }
+    
+    /**
+     * Writes the specified data to the given register, bypassing the shadow copy
      * 
      * @param register - The register to write to
      * @param data - The data to write
@@ -300,15 +701,10 @@ public class MPU6050 extends Thread implements Sensor {
      * @throws IOException
      */
     public void writeConfigRegisterAndValidate(String initialText, String successText, byte register, byte registerData) throws IOException {
-        System.out.println(initialText);
-        writeRegister(register, registerData);
-        byte returnedRegisterData = readRegister(register);
-        if (returnedRegisterData == registerData) {
-            System.out.println(successText + formatBinary(returnedRegisterData));
-        } else {
-            throw new RuntimeException("Tried to write " + formatBinary(registerData) + " to "
-                    + register + ", but validiating value returned " + formatBinary(returnedRegisterData));
-        }
+        log.fine(initialText);
+        registers.stage(register, registerData);
+        registers.commit(mpu6050);
+        log.fine(() -> successText + formatBinary(registers.get(register)));
     }
     
     /**
@@ -319,17 +715,7 @@ public class MPU6050 extends Thread implements Sensor {
      * @return
      */
     public String formatBinary(byte b) {
-        String binaryString = Integer.toBinaryString(b);
-        if (binaryString.length() > 8) {
-            binaryString = binaryString.substring(binaryString.length() - 8);
-        }
-        if (binaryString.length() < 8) {
-            byte fillingZeros = (byte) (8 - binaryString.length());
-            for (int j = 1; j <= fillingZeros; j++) {
-                binaryString = "0" + binaryString;
-            }
-        }
-        return binaryString;
+        return RegisterMap.formatBinary(b);
     }
     
     /**
@@ -380,6 +766,30 @@ public class MPU6050 extends Thread implements Sensor {
     	return (int)Math.toDegrees(gamma);
     }
     
+    /**
+     * 
+     * @return history - The recent accelerations (in g) of the sensor along with their timestamps
+     */
+    public SampleHistory getHistory(){
+    	return history;
+    }
+    
+    /**
+     * 
+     * @return drift - The estimated drift of the chip's oscillator from the host clock in parts per million, 0 when not using the FIFO
+     */
+    public double getClockDrift(){
+    	return clock == null ? 0 : clock.getDrift();
+    }
+    
+    /**
+     * 
+     * @return registers - The shadow copy of the configuration registers
+     */
+    public RegisterMap getRegisterMap(){
+    	return registers;
+    }
+    
     /**
      * 
      * @return calibrated - Whether the sensor is calibrated yet
@@ -388,6 +798,33 @@ public class MPU6050 extends Thread implements Sensor {
     	return calibrated;
     }
     
+    /**
+     * Waits for the first sample taken after calibration
+     * 
+     * @param timeout - The longest time to wait (ms)
+     * @return sampled - Whether a sample was taken in time
+     * @throws InterruptedException
+     */
+    public boolean awaitFirstSample(long timeout) throws InterruptedException {
+    	return firstSample.await(timeout, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * @return firstSampleTime - The time the first sample after calibration was taken, in nanoseconds (System.nanoTime), 0 if none has been yet
+     */
+    public long getFirstSampleTime(){
+    	return firstSampleTime;
+    }
+    
+    /**
+     * @param busNumber - The number of the I2C bus
+     * @param address - The I2C address of the sensor
+     * @return key - The key the offsets of the sensor are stored under in a CalibrationStore
+     */
+    public static String calibrationKey(int busNumber, int address){
+    	return "mpu6050." + busNumber + "." + Integer.toHexString(address);
+    }
+    
     /**
 	 * Returns the relevant data associated with this sensor as a string
 	 * 
@@ -403,6 +840,11 @@ public class MPU6050 extends Thread implements Sensor {
 		return true;
 	}
 	
+	@Override
+	public long getTimestamp() {
+		return timestamp;
+	}
+	
 	@Override
 	public boolean isCalibrated() {
 		return calibrated;
@@ -430,12 +872,18 @@ public class MPU6050 extends Thread implements Sensor {
      */
 	private static final class Registers{
 		
+		public static final int COUNT = 0x76;//The number of registers
+		
 		public static final byte MPU6050_RA_PWR_MGMT_1 = 107;
 		public static final byte MPU6050_RA_SMPLRT_DIV = 25;
 		public static final byte MPU6050_RA_CONFIG = 26;
 		public static final byte MPU6050_RA_GYRO_CONFIG = 27;
 		public static final byte MPU6050_RA_ACCEL_CONFIG = 28;
+		public static final byte MPU6050_RA_FF_THR = 29;
+		public static final byte MPU6050_RA_FF_DUR = 30;
+		public static final byte MPU6050_RA_FIFO_EN = 35;
 		public static final byte MPU6050_RA_INT_ENABLE = 56;
+		public static final byte MPU6050_RA_USER_CTRL = 106;
 		public static final byte MPU6050_RA_PWR_MGMT_2 = 108;
 		
 		/*********************Reading in*****************/
@@ -447,10 +895,14 @@ public class MPU6050 extends Thread implements Sensor {
 //		public static final int INT_ENABLE = 0x38;
 		
 		
+		public static final int INT_STATUS = 0x3A;
 		public static final int ACCEL_XOUT_H = 0x3B;
 		public static final int ACCEL_YOUT_H = 0x3D;
 		public static final int ACCEL_ZOUT_H = 0x3F;
 		
+		public static final int FIFO_COUNT_H = 0x72;
+		public static final int FIFO_R_W = 0x74;
+		
 //		public static final int GYRO_XOUT_H = 0x43;
 //		public static final int GYRO_YOUT_H = 0x45;
 //		public static final int GYRO_ZOUT_H = 0x47;
@@ -504,14 +956,30 @@ public class MPU6050 extends Thread implements Sensor {
 		*/
 		public static final byte MPU6050_RA_ACCEL_CONFIG = 0b00000000;
 		/**
-		* Disabling FIFO buffer
+		* Writes only the accelerometer readings to the FIFO buffer (when enabled)
+		*/
+		public static final byte MPU6050_RA_FIFO_EN = 0b00001000;
+		/**
+		* Enables the FIFO buffer and clears whatever it held
 		*/
-//		public static final byte MPU6050_RA_FIFO_EN = 0b00000000;
+		public static final byte MPU6050_RA_USER_CTRL = 0b01000100;
 		/**
 		* Disabling interrupts
 		*/
 		public static final byte MPU6050_RA_INT_ENABLE = 0b00000000;
 		/**
+		* Enabling only the freefall interrupt
+		*/
+		public static final byte MPU6050_RA_INT_ENABLE_FF = (byte)0b10000000;
+		/**
+		* Setting the freefall threshold to 0.3g (2mg per bit)
+		*/
+		public static final byte MPU6050_RA_FF_THR = (byte)150;
+		/**
+		* Setting the freefall duration to 60ms (1ms per bit)
+		*/
+		public static final byte MPU6050_RA_FF_DUR = 60;
+		/**
 		* Disabling standby modes
 		*/
 		public static final byte MPU6050_RA_PWR_MGMT_2 = 0b00000000;
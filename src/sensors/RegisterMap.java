@@ -0,0 +1,295 @@
+/**
+ * An in-memory shadow copy of the registers of an I2C device. Register values are
+ * staged and then committed together: only registers that differ from the shadow
+ * copy are sent, runs of neighbouring registers go out as single burst writes, and
+ * everything written is validated with a few bulk reads
+ */
+
+package sensors;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+public class RegisterMap {
+
+	private static final Logger log = Logger.getLogger(RegisterMap.class.getName());
+
+	private final byte[] shadow;//The last known value of each register
+	private final boolean[] known;//Whether the shadow value of each register is known
+
+	private final byte[] staged;//The values waiting to be committed
+	private final int[] stagedOrder;//The order each register was staged in, 0 when not staged
+	private int stageCount;//The number of registers staged
+
+	private final byte[] selfClearing;//Bits of each register that the device clears itself after a write
+	private final boolean[] unreadable;//Registers that can't be read back without side effects
+
+	private final byte[] buffer;//Holds bursts being written and read
+	
+	private int maxReadGap = 8;//The most unwritten registers a validating read will span rather than starting a new read
+
+	/**
+	 * @param size - The number of registers of the device
+	 */
+	public RegisterMap(int size){
+		shadow = new byte[size];
+		known = new boolean[size];
+
+		staged = new byte[size];
+		stagedOrder = new int[size];
+
+		selfClearing = new byte[size];
+		unreadable = new boolean[size];
+
+		buffer = new byte[size];
+	}
+
+	/**
+	 * Marks bits of a register that the device clears itself once they have taken effect (e.g. resets).
+	 * Those bits always cause a write when staged set, and are ignored when validating
+	 *
+	 * @param register - The register
+	 * @param mask - The self clearing bits
+	 */
+	public void setSelfClearing(int register, int mask){
+		selfClearing[register] = (byte)mask;
+	}
+
+	/**
+	 * Marks a register that must not be read while validating, because reading it changes the device
+	 * (e.g. an interrupt status cleared on read, or a FIFO)
+	 *
+	 * @param register - The register
+	 */
+	public void setUnreadable(int register){
+		unreadable[register] = true;
+	}
+
+	/**
+	 * Sets how many unwritten registers a validating read may read through to avoid starting another read.
+	 * Reading a register costs a byte on the bus, while starting a read costs the addressing bytes plus
+	 * the system call, so a small gap is cheaper to read through than to skip
+	 *
+	 * @param maxReadGap - The most unwritten registers to read through
+	 */
+	public void setMaxReadGap(int maxReadGap){
+		this.maxReadGap = maxReadGap;
+	}
+
+	/**
+	 * Stages a value to be written on the next commit
+	 *
+	 * @param register - The register
+	 * @param value - The value to write
+	 */
+	public void stage(int register, byte value){
+		if(stagedOrder[register] == 0){
+			stagedOrder[register] = ++stageCount;
+		}
+
+		staged[register] = value;
+	}
+
+	/**
+	 * Writes every staged register that differs from the shadow copy, then validates them.
+	 * Runs of neighbouring registers are written in one burst, the bursts being sent in the
+	 * order their first register was staged
+	 *
+	 * @param device - The device to write to
+	 * @return transactions - The number of writes and reads made
+	 * @throws IOException - If a transaction fails or a register doesn't read back what was written. The
+	 * staged registers are dropped and their values forgotten, as the batch may be half applied
+	 */
+	public int commit(I2CDevice device) throws IOException {
+		int transactions;
+
+		//Drop the staged registers that already hold their value
+		int low = Integer.MAX_VALUE, high = -1;
+		for(int r = 0; r < shadow.length; r++){
+			if(stagedOrder[r] == 0){
+				continue;
+			}
+
+			if(known[r] && staged[r] == shadow[r] && (staged[r] & selfClearing[r]) == 0){
+				int register = r;
+				stagedOrder[r] = 0;
+				log.finer(() -> "Register " + register + " already holds " + formatBinary(shadow[register]));
+			}else{
+				low = Math.min(low, r);
+				high = Math.max(high, r);
+			}
+		}
+
+		if(high < 0){
+			stageCount = 0;
+			return 0;
+		}
+
+		boolean committed = false;
+		try {
+			transactions = write(device, low, high);
+			transactions += validate(device, low, high);
+
+			//The device now holds the staged values, less the bits that clear themselves
+			for(int r = low; r <= high; r++){
+				if(stagedOrder[r] != 0){
+					shadow[r] = (byte)(staged[r] & ~selfClearing[r]);
+					known[r] = true;
+				}
+			}
+
+			committed = true;
+		} finally {
+			if(!committed){
+				for(int r = low; r <= high; r++){
+					if(stagedOrder[r] != 0){
+						known[r] = false;
+					}
+				}
+			}
+
+			Arrays.fill(stagedOrder, low, high + 1, 0);
+			stageCount = 0;
+		}
+
+		return transactions;
+	}
+
+	/**
+	 * Sends the staged registers between low and high in bursts, earliest staged first
+	 */
+	private int write(I2CDevice device, int low, int high) throws IOException {
+		int transactions = 0;
+
+		int[] starts = new int[high - low + 1];
+		int bursts = 0;
+		for(int r = low; r <= high; r++){
+			if(stagedOrder[r] != 0 && (r == low || stagedOrder[r - 1] == 0)){
+				starts[bursts++] = r;
+			}
+		}
+
+		for(int written = 0; written < bursts; written++){
+			int first = -1;
+			for(int b = 0; b < bursts; b++){
+				if(starts[b] >= 0 && (first < 0 || stagedOrder[starts[b]] < stagedOrder[starts[first]])){
+					first = b;
+				}
+			}
+
+			int start = starts[first];
+			starts[first] = -1;
+
+			int length = 0;
+			while(start + length <= high && stagedOrder[start + length] != 0){
+				buffer[length] = staged[start + length];
+				length++;
+			}
+
+			int count = length;
+			log.fine(() -> "Writing " + count + " register(s) from " + start);
+
+			device.write(start, buffer, 0, length);
+			transactions++;
+		}
+
+		return transactions;
+	}
+
+	/**
+	 * Reads back the written registers between low and high, in as few reads as the unreadable registers allow
+	 */
+	private int validate(I2CDevice device, int low, int high) throws IOException {
+		int reads = 0;
+
+		int r = low;
+		while(r <= high){
+			//Find the next run that can be read in one go, trimmed to the registers that were written
+			while(r <= high && stagedOrder[r] == 0) r++;
+			if(r > high) break;
+
+			int start = r;
+			int end = r;
+			while(r <= high && !unreadable[r] && r - end <= maxReadGap + 1){
+				if(stagedOrder[r] != 0) end = r;
+				r++;
+			}
+
+			if(unreadable[start]){//Written but can't be checked
+				r = start + 1;
+				continue;
+			}
+
+			r = end + 1;
+
+			int length = end - start + 1;
+			device.read(start, buffer, 0, length);
+			reads++;
+
+			for(int i = 0; i < length; i++){
+				int register = start + i;
+				if(stagedOrder[register] == 0){
+					continue;
+				}
+
+				byte expected = (byte)(staged[register] & ~selfClearing[register]);
+				byte returned = (byte)(buffer[i] & ~selfClearing[register]);
+
+				if(returned != expected){
+					throw new IOException("Tried to write " + formatBinary(expected) + " to "
+							+ register + ", but validiating value returned " + formatBinary(returned));
+				}
+			}
+		}
+
+		if(log.isLoggable(Level.FINE)){
+			log.fine("Validated registers " + low + " to " + high + " in " + reads + " read(s)");
+		}
+
+		return reads;
+	}
+
+	/**
+	 * Forgets the shadow copy, so the next commit writes every staged register (e.g. after the device resets)
+	 */
+	public void invalidate(){
+		Arrays.fill(known, false);
+	}
+
+	/**
+	 * @param register - The register
+	 * @return known - Whether the value of the register is known
+	 */
+	public boolean isKnown(int register){
+		return known[register];
+	}
+
+	/**
+	 * @param register - The register
+	 * @return value - The last value written to the register
+	 */
+	public byte get(int register){
+		return shadow[register];
+	}
+
+	/**
+	 * Formats a byte as 8 binary digits
+	 *
+	 * @param b - The byte
+	 * @return binary - The digits, most significant first
+	 */
+	public static String formatBinary(byte b){
+		char[] digits = new char[8];
+
+		for(int i = 0; i < 8; i++){
+			digits[i] = (b & (0x80 >> i)) != 0 ? '1' : '0';
+		}
+
+		return new String(digits);
+	}
+
+}
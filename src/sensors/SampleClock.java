@@ -0,0 +1,124 @@
+/**
+ * Reconstructs the timestamps of samples read from a sensor in batches (such as the
+ * MPU6050 FIFO). The sensor produces samples on its own oscillator, which drifts from
+ * the host clock, so the sample period is estimated from the number of samples received
+ * over a long host-clock baseline and the timeline is gently steered towards the read times
+ */
+
+package sensors;
+
+public class SampleClock {
+
+	private static final double maxDrift = 0.05;//The largest believable deviation from the nominal period (5%)
+	private static final double phaseGain = 0.05;//Fraction of the phase error corrected on each batch
+	private static final long minBaseline = 1_000_000_000L;//Host time needed before the period estimate is trusted (ns)
+	private static final int resyncPeriods = 64;//Phase error (in periods) beyond which the timeline is restarted
+
+	private final double nominalPeriod;//The sample period given by the sensor configuration (ns)
+	private double period;//The estimated sample period on the host clock (ns)
+
+	private boolean synced;//Whether the timeline has been started
+	private long lastTimestamp;//The timestamp given to the most recent sample
+
+	private long anchorTime;//Host time the drift baseline started
+	private long samplesSinceAnchor;//Samples received since the baseline started
+
+	/**
+	 * @param nominalPeriod - The configured sample period of the sensor, in nanoseconds
+	 */
+	public SampleClock(double nominalPeriod){
+		if(nominalPeriod <= 0){
+			throw new IllegalArgumentException("Sample period must be positive: " + nominalPeriod);
+		}
+
+		this.nominalPeriod = nominalPeriod;
+
+		reset();
+	}
+
+	/**
+	 * Restarts the timeline and drift estimate, used after the sensor buffer overflows or is reset
+	 */
+	public void reset(){
+		period = nominalPeriod;
+		synced = false;
+		samplesSinceAnchor = 0;
+	}
+
+	/**
+	 * Assigns timestamps to a batch of samples. The newest sample of the batch is assumed to have
+	 * been produced just before the read time
+	 *
+	 * @param readTime - The host time at which the batch size was read, in nanoseconds
+	 * @param count - The number of samples in the batch
+	 * @param out - Output, the timestamp of each sample oldest first
+	 */
+	public void reconstruct(long readTime, int count, long[] out){
+		if(count <= 0){
+			return;
+		}
+
+		if(synced){
+			double predicted = lastTimestamp + count * period;
+			double error = readTime - predicted;
+
+			if(Math.abs(error) > resyncPeriods * period){//Samples were lost or the read stalled, start over
+				reset();
+			}else{
+				updatePeriod(readTime, count);
+
+				double base = lastTimestamp + error * phaseGain;
+				for(int i = 0; i < count; i++){
+					//Timestamps must stay strictly increasing even when steering backwards
+					out[i] = Math.max((long)(base + (i + 1) * period), (i == 0 ? lastTimestamp : out[i - 1]) + 1);
+				}
+
+				lastTimestamp = out[count - 1];
+				return;
+			}
+		}
+
+		for(int i = 0; i < count; i++){
+			out[i] = readTime - (long)((count - 1 - i) * period);
+		}
+
+		lastTimestamp = out[count - 1];
+
+		anchorTime = readTime;
+		samplesSinceAnchor = 0;
+		synced = true;
+	}
+
+	/**
+	 * Updates the period estimate from the samples counted since the baseline started
+	 */
+	private void updatePeriod(long readTime, int count){
+		samplesSinceAnchor += count;
+
+		long elapsed = readTime - anchorTime;
+		if(elapsed < minBaseline){
+			return;
+		}
+
+		double estimate = (double)elapsed / samplesSinceAnchor;
+
+		if(Math.abs(estimate - nominalPeriod) <= nominalPeriod * maxDrift){
+			period = estimate;
+		}
+	}
+
+	/**
+	 * @return period - The estimated sample period on the host clock, in nanoseconds
+	 */
+	public double getPeriod(){
+		return period;
+	}
+
+	/**
+	 * @return drift - The deviation of the sensor oscillator from the host clock in parts per million, positive when the sensor runs slow
+	 */
+	public double getDrift(){
+		return (period - nominalPeriod) / nominalPeriod * 1e6;
+	}
+
+}
@@ -0,0 +1,156 @@
+/**
+ * A fixed-size ring buffer of timestamped samples. Timestamps are in nanoseconds
+ * on the System.nanoTime() clock and values are stored in flat primitive arrays so
+ * that recording a sample never allocates
+ */
+
+package sensors;
+
+public class SampleHistory {
+
+	private final long[] timestamps;//The timestamp of each slot
+	private final float[] values;//The values of each slot, channels values per slot
+
+	private final int channels;//The number of values recorded per sample
+
+	private int head;//The slot the next sample will be written to
+	private int size;//The number of valid samples in the buffer
+
+	/**
+	 * @param capacity - The maximum number of samples retained
+	 * @param channels - The number of values in each sample
+	 */
+	public SampleHistory(int capacity, int channels){
+		if(capacity < 2 || channels < 1){
+			throw new IllegalArgumentException("A history needs at least 2 samples of 1 channel");
+		}
+
+		timestamps = new long[capacity];
+		values = new float[capacity * channels];
+
+		this.channels = channels;
+
+		head = size = 0;
+	}
+
+	/**
+	 * Records a three channel sample, overwriting the oldest sample if the buffer is full.
+	 * Samples must be added in order of increasing timestamp
+	 *
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 * @param x - The first channel
+	 * @param y - The second channel
+	 * @param z - The third channel
+	 */
+	public synchronized void add(long timestamp, float x, float y, float z){
+		int base = head * channels;
+
+		values[base] = x;
+		if(channels > 1) values[base + 1] = y;
+		if(channels > 2) values[base + 2] = z;
+
+		commit(timestamp);
+	}
+
+	/**
+	 * Records a sample, overwriting the oldest sample if the buffer is full.
+	 * Samples must be added in order of increasing timestamp
+	 *
+	 * @param timestamp - The time the sample was taken, in nanoseconds
+	 * @param sample - The channel values, only the first channels values are used
+	 */
+	public synchronized void add(long timestamp, float[] sample){
+		System.arraycopy(sample, 0, values, head * channels, channels);
+
+		commit(timestamp);
+	}
+
+	private void commit(long timestamp){
+		timestamps[head] = timestamp;
+
+		head = (head + 1) % timestamps.length;
+
+		if(size < timestamps.length){
+			size++;
+		}
+	}
+
+	/**
+	 * Removes all samples from the history
+	 */
+	public synchronized void clear(){
+		head = size = 0;
+	}
+
+	/**
+	 * @param index - The sample index, 0 being the oldest retained sample
+	 * @return timestamp - The time the sample was taken, in nanoseconds
+	 */
+	public synchronized long getTimestamp(int index){
+		return timestamps[slot(index)];
+	}
+
+	/**
+	 * @param index - The sample index, 0 being the oldest retained sample
+	 * @param channel - The channel to fetch
+	 * @return value - The value of the channel for that sample
+	 */
+	public synchronized float getValue(int index, int channel){
+		return values[slot(index) * channels + channel];
+	}
+
+	/**
+	 * @return timestamp - The time of the oldest retained sample, in nanoseconds
+	 */
+	public synchronized long getOldestTimestamp(){
+		return timestamps[slot(0)];
+	}
+
+	/**
+	 * @return timestamp - The time of the newest sample, in nanoseconds
+	 */
+	public synchronized long getNewestTimestamp(){
+		return timestamps[slot(size - 1)];
+	}
+
+	/**
+	 * Converts a sample index (0 being the oldest) to the backing array slot
+	 */
+	int slot(int index){
+		if(index < 0 || index >= size){
+			throw new IndexOutOfBoundsException("Sample " + index + " of " + size);
+		}
+
+		return (head - size + index + timestamps.length) % timestamps.length;
+	}
+
+	long rawTimestamp(int slot){
+		return timestamps[slot];
+	}
+
+	float rawValue(int slot, int channel){
+		return values[slot * channels + channel];
+	}
+
+	/**
+	 * @return size - The number of samples currently retained
+	 */
+	public synchronized int size(){
+		return size;
+	}
+
+	/**
+	 * @return capacity - The maximum number of samples retained
+	 */
+	public int capacity(){
+		return timestamps.length;
+	}
+
+	/**
+	 * @return channels - The number of values in each sample
+	 */
+	public int getChannels(){
+		return channels;
+	}
+
+}
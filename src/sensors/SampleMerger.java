@@ -0,0 +1,130 @@
+/**
+ * Merges the histories of several sensors onto a common time grid so that data
+ * from different devices can be compared sample for sample. Each source is
+ * linearly interpolated at the grid times in a single forward pass, so a merge
+ * costs O(grid points + retained samples) with no allocation
+ */
+
+package sensors;
+
+public class SampleMerger {
+
+	/**
+	 * Finds the time window covered by every one of the given histories
+	 *
+	 * @param sources - The histories to check
+	 * @param window - Output, {start, end} in nanoseconds
+	 * @return overlapping - Whether all the histories overlap (start <= end)
+	 */
+	public static boolean commonWindow(SampleHistory[] sources, long[] window){
+		long start = Long.MIN_VALUE;
+		long end = Long.MAX_VALUE;
+
+		for(SampleHistory source : sources){
+			synchronized(source){
+				if(source.size() == 0){
+					return false;
+				}
+
+				start = Math.max(start, source.getOldestTimestamp());
+				end = Math.min(end, source.getNewestTimestamp());
+			}
+		}
+
+		window[0] = start;
+		window[1] = end;
+
+		return start <= end;
+	}
+
+	/**
+	 * Interpolates every source onto the grid start, start + step, ... start + (count - 1) * step.
+	 * The output holds one row per grid point, each row being the channels of every source in order.
+	 * Grid points outside a source's history take that source's nearest sample
+	 *
+	 * @param sources - The histories to merge
+	 * @param start - The first grid time, in nanoseconds
+	 * @param step - The grid spacing, in nanoseconds
+	 * @param count - The number of grid points
+	 * @param out - Output, at least count * (total channels) long
+	 * @return stride - The number of values in each output row
+	 */
+	public static int merge(SampleHistory[] sources, long start, long step, int count, float[] out){
+		if(step <= 0){
+			throw new IllegalArgumentException("Grid step must be positive: " + step);
+		}
+
+		int stride = 0;
+		for(SampleHistory source : sources){
+			stride += source.getChannels();
+		}
+
+		if(out.length < count * stride){
+			throw new IllegalArgumentException("Output holds " + out.length + " values, merge needs " + (count * stride));
+		}
+
+		int column = 0;
+		for(SampleHistory source : sources){
+			synchronized(source){
+				interpolate(source, start, step, count, out, column, stride);
+			}
+
+			column += source.getChannels();
+		}
+
+		return stride;
+	}
+
+	/**
+	 * Interpolates a single source onto the grid, writing its channels at the given column
+	 */
+	private static void interpolate(SampleHistory source, long start, long step, int count, float[] out, int column, int stride){
+		int channels = source.getChannels();
+		int size = source.size();
+
+		if(size == 0){
+			for(int k = 0; k < count; k++){
+				for(int c = 0; c < channels; c++){
+					out[k * stride + column + c] = Float.NaN;
+				}
+			}
+
+			return;
+		}
+
+		int index = 0;//The sample at or before the current grid time
+		int slot = source.slot(0);
+		int next = size > 1 ? source.slot(1) : slot;
+
+		for(int k = 0; k < count; k++){
+			long t = start + k * step;
+
+			//Walk forward until the next sample is after the grid time
+			while(index + 1 < size && source.rawTimestamp(next) <= t){
+				index++;
+				slot = next;
+				next = index + 1 < size ? source.slot(index + 1) : slot;
+			}
+
+			long t0 = source.rawTimestamp(slot);
+			long t1 = source.rawTimestamp(next);
+
+			int row = k * stride + column;
+
+			if(t <= t0 || t1 <= t0){//Before the history or at its end, hold the nearest sample
+				for(int c = 0; c < channels; c++){
+					out[row + c] = source.rawValue(slot, c);
+				}
+			}else{
+				float f = (float)((double)(t - t0) / (t1 - t0));
+				if(f > 1) f = 1;
+
+				for(int c = 0; c < channels; c++){
+					float v0 = source.rawValue(slot, c);
+					out[row + c] = v0 + (source.rawValue(next, c) - v0) * f;
+				}
+			}
+		}
+	}
+
+}
@@ -66,6 +66,12 @@ public interface Sensor {
 	 */
 	public abstract boolean isCalibrated();
 	
+	/**
+	 * Returns the time at which the latest data was taken, in nanoseconds
+	 * on the monotonic System.nanoTime() clock
+	 */
+	public abstract long getTimestamp();
+	
 	/**
 	 * @Author Cam Hatherell
 	 * 
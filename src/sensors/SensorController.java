@@ -8,8 +8,10 @@
 package sensors;
 
 import java.io.IOException;
-
-import main.Main;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import com.pi4j.io.gpio.GpioController;
 import com.pi4j.io.gpio.GpioFactory;
@@ -19,65 +21,173 @@ import com.pi4j.io.i2c.I2CFactory.UnsupportedBusNumberException;
 
 public class SensorController {
 	
-	private I2CBus bus = null;//The I2CBus
-	private GpioController gpio = null;//The Gpio controller
+	//The I2CBus and Gpio controller, each opened the first time it is needed (or when prefetched)
+	private final FutureTask<I2CBus> bus = new FutureTask<I2CBus>(() -> I2CFactory.getInstance(I2CBus.BUS_1));
+	private final FutureTask<GpioController> gpio = new FutureTask<GpioController>(GpioFactory::getInstance);
+	
+	private final List<Sensor> sensors = new CopyOnWriteArrayList<Sensor>();//The sensors being controlled
 
 	public static final float refreshRate = 10f;//Rate at which to refresh the sensors in Hz
 	
 	/**
 	 * @author Cam Hatherell
 	 * 
-	 * Initializes the I2CBus and Gpio Controller
+	 * Creates the controller. Nothing is initialized until it is first used, so a robot
+	 * that only uses I2C never loads the Gpio native library
 	 */
-	public SensorController(){
-		
-		try {
-			initializeI2C();
-		} catch (UnsupportedBusNumberException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		
-		initializeGPIO();
-		
+	public SensorController(){}
+	
+	/**
+	 * Starts opening the I2C bus in the background, so that it is ready (or nearly) by the time it is needed
+	 */
+	public void prefetchI2C(){
+		prefetch(bus, "I2C initialization");
 	}
 	
 	/**
 	 * @author Cam Hatherell
 	 * 
-	 * Initializes the bus
+	 * Starts initializing the Gpio controller in the background, so that it is ready (or nearly) by the time it is needed
+	 */
+	public void prefetchGPIO(){
+		prefetch(gpio, "GPIO initialization");
+	}
+	
+	/**
+	 * Initializes the bus, if it hasn't been already
 	 * 
 	 * @throws UnsupportedBusNumberException
 	 * @throws IOException
 	 */
 	public void initializeI2C() throws UnsupportedBusNumberException, IOException{
-        bus = I2CFactory.getInstance(I2CBus.BUS_1);
+		getBus();
 	}
 	
 	/**
 	 * @author Cam Hatherell
 	 * 
-	 * Initializes the Gpio controller
+	 * Initializes the Gpio controller, if it hasn't been already
 	 */
 	public void initializeGPIO(){
-		gpio = GpioFactory.getInstance();
+		getGpio();
 	}
 
 	/**
 	 * @author Cam Hatherell
+	 * 
+	 * Opens the bus the first time it is called, or waits for it to be opened if it is being prefetched
+	 * 
 	 * @return bus - The I2C bus
+	 * @throws UnsupportedBusNumberException
+	 * @throws IOException
 	 */
-	public I2CBus getBus() {
-		return bus;
+	public I2CBus getBus() throws UnsupportedBusNumberException, IOException{
+		try {
+			return await(bus);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			
+			if(cause instanceof UnsupportedBusNumberException){
+				throw (UnsupportedBusNumberException)cause;
+			}
+			if(cause instanceof IOException){
+				throw (IOException)cause;
+			}
+			throw rethrow(cause);
+		}
 	}
 	
 	/**
 	 * @author Cam Hatherell
+	 * 
+	 * Initializes the controller the first time it is called, or waits for it if it is being prefetched
+	 * 
 	 * @return gpio - The gpio controller
 	 */
 	public GpioController getGpio(){
-		return gpio;
+		try {
+			return await(gpio);
+		} catch (ExecutionException e) {
+			throw rethrow(e.getCause());
+		}
+	}
+	
+	/**
+	 * Runs an initialization on a new thread, unless it has already started
+	 */
+	private static void prefetch(FutureTask<?> task, String name){
+		if(!task.isDone()){
+			Thread thread = new Thread(task, name);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Runs an initialization on this thread if it hasn't started, then waits for its result
+	 */
+	private static <T> T await(FutureTask<T> task) throws ExecutionException {
+		task.run();//Does nothing if the task is already running on another thread or done
+		
+		boolean interrupted = false;
+		try {
+			while(true){
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					interrupted = true;//The initialization can't be abandoned half way, so finish waiting
+				}
+			}
+		} finally {
+			if(interrupted){
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	/**
+	 * Rethrows the unchecked failure of an initialization
+	 */
+	private static RuntimeException rethrow(Throwable cause){
+		if(cause instanceof RuntimeException){
+			throw (RuntimeException)cause;
+		}
+		if(cause instanceof Error){
+			throw (Error)cause;
+		}
+		return new IllegalStateException(cause);
+	}
+	
+	/**
+	 * Whether an initialization has finished without failing
+	 */
+	private static boolean isInitialized(FutureTask<?> task){
+		if(!task.isDone()){
+			return false;
+		}
+		
+		try {
+			task.get();
+			return true;
+		} catch (InterruptedException | ExecutionException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Adds a sensor to those handled by this controller
+	 * 
+	 * @param sensor - The sensor
+	 */
+	public void addSensor(Sensor sensor){
+		sensors.add(sensor);
+	}
+	
+	/**
+	 * @return sensors - The sensors handled by this controller
+	 */
+	public List<Sensor> getSensors(){
+		return sensors;
 	}
 	
 	/**
@@ -86,14 +196,17 @@ public class SensorController {
 	 * Shuts down the gpio controller
 	 */
 	public void shutdownGPIO(){
-//		//Runs through all the gpio-based sensors and deactivates them
-//		for(Sensor sensor : Main.sensors){
-//			if(sensor.getType() == Type.CONTACT){
-//				sensor.deactivate();
-//			}
-//		}
-//		
-		gpio.shutdown();
+		//Runs through all the gpio-based sensors and deactivates them
+		for(Sensor sensor : sensors){
+			if(sensor.getType() == Sensor.Type.CONTACT){
+				sensor.deactivate();
+			}
+		}
+		
+		//Only shut the controller down if it was ever started
+		if(isInitialized(gpio)){
+			getGpio().shutdown();
+		}
 			
 	}
 }
@@ -0,0 +1,107 @@
+/**
+ * A synthetic sequence of pin edges for a bouncing switch. Each press and release is
+ * followed by a random number of bounces (edges back and forth) spaced closer together
+ * than the debounce time, before the level settles. Levels are for a switch to ground
+ * with a pull up, so low is pressed
+ */
+
+package simulation;
+
+import java.util.Random;
+
+import sensors.ContactSensor;
+
+public class BouncePattern {
+	
+	private final boolean[] levels;//The level after each edge
+	private final long[] times;//The time of each edge, relative to the start of the pattern (ns)
+	private int size;//The number of edges
+	
+	/**
+	 * @param presses - The number of presses (each followed by a release)
+	 * @param maxBounces - The most bounces after each edge, the number is random up to this
+	 * @param bounceSpacing - The longest time between bounces, in nanoseconds
+	 * @param holdTime - How long each press lasts, in nanoseconds
+	 * @param gapTime - How long between a release and the next press, in nanoseconds
+	 * @param seed - The seed for the random bounces, so patterns can be repeated
+	 */
+	public BouncePattern(int presses, int maxBounces, long bounceSpacing, long holdTime, long gapTime, long seed){
+		Random random = new Random(seed);
+		
+		int capacity = presses * 2 * (1 + 2 * maxBounces);
+		levels = new boolean[capacity];
+		times = new long[capacity];
+		
+		long time = 0;
+		
+		for(int i = 0; i < presses; i++){
+			bounce(false, time, maxBounces, bounceSpacing, random);
+			time += holdTime;
+			
+			bounce(true, time, maxBounces, bounceSpacing, random);
+			time += gapTime;
+		}
+	}
+	
+	/**
+	 * Adds an edge to the given level and the bounces after it
+	 */
+	private void bounce(boolean level, long time, int maxBounces, long bounceSpacing, Random random){
+		add(level, time);
+		
+		int bounces = maxBounces == 0 ? 0 : random.nextInt(maxBounces + 1);
+		for(int i = 0; i < bounces; i++){
+			time += 1 + (long)(random.nextDouble() * bounceSpacing);
+			add(!level, time);
+			
+			time += 1 + (long)(random.nextDouble() * bounceSpacing);
+			add(level, time);
+		}
+	}
+	
+	private void add(boolean level, long time){
+		levels[size] = level;
+		times[size] = time;
+		size++;
+	}
+	
+	/**
+	 * Feeds the pattern straight into a sensor, skipping the gpio layer so that only the debouncing is measured.
+	 * The sensor doesn't settle by itself, so settle it once the debounce time after the end has passed
+	 * 
+	 * @param sensor - The sensor to feed
+	 * @param start - The time the pattern starts, in nanoseconds
+	 * @return end - The time of the last edge, in nanoseconds
+	 */
+	public long feed(ContactSensor sensor, long start){
+		for(int i = 0; i < size; i++){
+			sensor.edge(levels[i], start + times[i]);
+		}
+		
+		return size == 0 ? start : start + times[size - 1];
+	}
+	
+	/**
+	 * @return size - The number of edges in the pattern
+	 */
+	public int size(){
+		return size;
+	}
+	
+	/**
+	 * @param index - The edge
+	 * @return high - The level after the edge
+	 */
+	public boolean getLevel(int index){
+		return levels[index];
+	}
+	
+	/**
+	 * @param index - The edge
+	 * @return time - The time of the edge relative to the start of the pattern, in nanoseconds
+	 */
+	public long getTime(int index){
+		return times[index];
+	}
+
+}
@@ -0,0 +1,92 @@
+/**
+ * A synthetic 10s recording of an accelerometer sampled at 1kHz, lying flat (z up) with a
+ * little noise, and a gesture every couple of seconds: taps at 1s and 3s, a double tap at
+ * 5s (taps at 5s and 5.2s), an 8Hz shake from 7s to 7.5s and a fall from 9s to 9.1s. Each
+ * tap is a 10ms spike of 1g on z
+ */
+
+package simulation;
+
+import java.util.Random;
+
+import gestures.GestureDetector;
+
+public class GestureRecording {
+	
+	public static final int samples = 10_000;//10s of samples
+	public static final long period = 1_000_000;//1kHz (ns)
+	
+	private final float[] recording = new float[samples * 3];//x, y, z of each sample (g)
+	
+	public GestureRecording(){
+		Random random = new Random(1);
+		
+		for(int i = 0; i < samples; i++){
+			double t = i * 1e-3;
+			
+			float x = (float)(0.01 * random.nextGaussian());
+			float y = (float)(0.01 * random.nextGaussian());
+			float z = (float)(1 + 0.01 * random.nextGaussian());
+			
+			if(spike(t, 1.0) || spike(t, 3.0) || spike(t, 5.0) || spike(t, 5.2)){//Taps, the last two a double tap
+				z += 1;
+			}
+			if(t >= 7 && t < 7.5){//Shaking at 8Hz
+				x += (float)(2 * Math.sin(2 * Math.PI * 8 * (t - 7)));
+			}
+			if(t >= 9 && t < 9.1){//Dropped
+				x *= 0.1f;
+				y *= 0.1f;
+				z *= 0.1f;
+			}
+			
+			recording[3 * i] = x;
+			recording[3 * i + 1] = y;
+			recording[3 * i + 2] = z;
+		}
+	}
+	
+	private static boolean spike(double t, double at){
+		return t >= at && t < at + 0.01;
+	}
+	
+	/**
+	 * Feeds the whole recording into a detector
+	 * 
+	 * @param detector - The detector to feed
+	 * @param start - The time of the first sample, in nanoseconds
+	 * @return end - The time of the last sample, in nanoseconds
+	 */
+	public long feed(GestureDetector detector, long start){
+		for(int i = 0; i < samples; i++){
+			detector.process(getX(i), getY(i), getZ(i), start + i * period);
+		}
+		
+		return start + (samples - 1) * period;
+	}
+	
+	/**
+	 * @param index - The sample
+	 * @return x - The acceleration along x, in g
+	 */
+	public float getX(int index){
+		return recording[3 * index];
+	}
+	
+	/**
+	 * @param index - The sample
+	 * @return y - The acceleration along y, in g
+	 */
+	public float getY(int index){
+		return recording[3 * index + 1];
+	}
+	
+	/**
+	 * @param index - The sample
+	 * @return z - The acceleration along z, in g
+	 */
+	public float getZ(int index){
+		return recording[3 * index + 2];
+	}
+
+}
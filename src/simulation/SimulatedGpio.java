@@ -0,0 +1,73 @@
+/**
+ * A gpio controller backed by pi4j's simulated provider, so that gpio sensors can be
+ * run (and benchmarked) away from the rPi. Input levels are set with setLevel and are
+ * delivered to listeners through pi4j exactly as on the real pins
+ */
+
+package simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+import com.pi4j.io.gpio.GpioController;
+import com.pi4j.io.gpio.Pin;
+import com.pi4j.io.gpio.PinState;
+import com.pi4j.io.gpio.SimulatedGpioProvider;
+import com.pi4j.io.gpio.impl.GpioControllerImpl;
+
+public class SimulatedGpio {
+	
+	private final SimulatedGpioProvider provider;//Holds the simulated pin states
+	private final GpioController gpio;//The controller sensors provision their pins from
+	
+	public SimulatedGpio(){
+		provider = new SimulatedGpioProvider();
+		gpio = new GpioControllerImpl(provider);
+	}
+	
+	/**
+	 * Changes the level of a (provisioned) pin, raising an edge event if it differs
+	 * 
+	 * @param pin - The pin to change
+	 * @param high - The new level
+	 */
+	public void setLevel(Pin pin, boolean high){
+		provider.setState(pin, high ? PinState.HIGH : PinState.LOW);
+	}
+	
+	/**
+	 * Plays a recorded or generated sequence of levels onto a pin in real time, blocking until it is done.
+	 * Short gaps are spun through since sleeping isn't precise enough for bounces
+	 * 
+	 * @param pin - The pin to change
+	 * @param pattern - The levels to set
+	 */
+	public void play(Pin pin, BouncePattern pattern){
+		long start = System.nanoTime();
+		
+		for(int i = 0; i < pattern.size(); i++){
+			long wait;
+			while((wait = start + pattern.getTime(i) - System.nanoTime()) > 0){
+				if(wait > 1_000_000L){
+					LockSupport.parkNanos(wait - 500_000L);
+				}
+			}
+			
+			setLevel(pin, pattern.getLevel(i));
+		}
+	}
+	
+	/**
+	 * @return gpio - The simulated gpio controller
+	 */
+	public GpioController getGpio(){
+		return gpio;
+	}
+	
+	/**
+	 * Shuts down the simulated gpio controller
+	 */
+	public void shutdown(){
+		gpio.shutdown();
+	}
+
+}
@@ -0,0 +1,62 @@
+/**
+ * An I2C bus of simulated devices, so that the sensors can be run (and benchmarked)
+ * away from the rPi. Devices are created on first use, each charging the time a real
+ * transaction would take on the bus
+ */
+
+package simulation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+
+public class SimulatedI2CBus implements I2CBus {
+	
+	public static final long fastModeByteTime = 22_500L;//The time to send a byte (plus ack) at 400kHz (ns)
+	
+	private final int busNumber;//The number of the bus
+	private final long byteTime;//The time each byte takes on the bus (ns), 0 for no delay
+	
+	private final Map<Integer, SimulatedI2CDevice> devices = new HashMap<Integer, SimulatedI2CDevice>();
+	
+	/**
+	 * @param busNumber - The number of the bus
+	 * @param byteTime - The time each byte takes on the bus in nanoseconds, 0 to run as fast as possible
+	 */
+	public SimulatedI2CBus(int busNumber, long byteTime){
+		this.busNumber = busNumber;
+		this.byteTime = byteTime;
+	}
+
+	@Override
+	public synchronized I2CDevice getDevice(int address) throws IOException {
+		return getSimulatedDevice(address);
+	}
+	
+	/**
+	 * @param address - The address of the device
+	 * @return device - The simulated device at the address, created if needed
+	 */
+	public synchronized SimulatedI2CDevice getSimulatedDevice(int address){
+		SimulatedI2CDevice device = devices.get(address);
+		
+		if(device == null){
+			device = new SimulatedI2CDevice(address, byteTime);
+			devices.put(address, device);
+		}
+		
+		return device;
+	}
+
+	@Override
+	public int getBusNumber(){
+		return busNumber;
+	}
+
+	@Override
+	public void close() throws IOException {}
+
+}
@@ -0,0 +1,307 @@
+/**
+ * A simulated MPU6050 on a simulated I2C bus. Registers can be written and read back
+ * (with the reset bits clearing themselves), the acceleration registers return whatever
+ * was last set, and the FIFO returns samples pushed into it. Every transaction is counted
+ * and takes as long as it would on the bus
+ */
+
+package simulation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import com.pi4j.io.i2c.I2CDevice;
+
+public class SimulatedI2CDevice implements I2CDevice {
+	
+	private static final int addressBytes = 2;//The bytes sent before the data (device and register address)
+	
+	private static final int PWR_MGMT_1 = 0x6B;
+	private static final int USER_CTRL = 0x6A;
+	private static final int INT_STATUS = 0x3A;
+	private static final int ACCEL_XOUT_H = 0x3B;
+	private static final int FIFO_COUNT_H = 0x72;
+	private static final int FIFO_R_W = 0x74;
+	private static final int WHO_AM_I = 0x75;
+	
+	private final int address;//The address of the device on the bus
+	private final long byteTime;//The time each byte takes on the bus (ns)
+	
+	private final byte[] registers = new byte[0x80];
+	private int pointer;//The register the next read or write without an address uses
+	
+	private final byte[] fifo = new byte[1024];//The FIFO buffer, as a ring
+	private int fifoHead;//Where the next byte is read from
+	private int fifoSize;//The number of bytes in the FIFO
+	
+	private long transactions;//The number of transactions made
+	private long bytes;//The number of bytes transferred, not counting addressing
+	
+	/**
+	 * @param address - The address of the device on the bus
+	 * @param byteTime - The time each byte takes on the bus in nanoseconds, 0 to run as fast as possible
+	 */
+	public SimulatedI2CDevice(int address, long byteTime){
+		this.address = address;
+		this.byteTime = byteTime;
+		
+		registers[PWR_MGMT_1] = 0b01000000;//Asleep on power up
+		registers[WHO_AM_I] = 0x68;
+	}
+	
+	/**
+	 * Sets the acceleration the device reads
+	 * 
+	 * @param x - The raw x acceleration
+	 * @param y - The raw y acceleration
+	 * @param z - The raw z acceleration
+	 */
+	public synchronized void setAcceleration(short x, short y, short z){
+		putShort(registers, ACCEL_XOUT_H, x);
+		putShort(registers, ACCEL_XOUT_H + 2, y);
+		putShort(registers, ACCEL_XOUT_H + 4, z);
+	}
+	
+	/**
+	 * Adds an acceleration sample to the FIFO. Like the chip, a full FIFO overwrites its oldest bytes,
+	 * so the count stays at 1024 and the samples no longer start on a sample boundary
+	 * 
+	 * @param x - The raw x acceleration
+	 * @param y - The raw y acceleration
+	 * @param z - The raw z acceleration
+	 */
+	public synchronized void pushFifo(short x, short y, short z){
+		pushFifo(x);
+		pushFifo(y);
+		pushFifo(z);
+	}
+	
+	private void pushFifo(short value){
+		pushFifo((byte)(value >> 8));
+		pushFifo((byte)value);
+	}
+	
+	private void pushFifo(byte value){
+		if(fifoSize == fifo.length){
+			registers[INT_STATUS] |= 0b00010000;//FIFO overflow
+			
+			fifoHead = (fifoHead + 1) % fifo.length;
+			fifoSize--;
+		}
+		
+		fifo[(fifoHead + fifoSize++) % fifo.length] = value;
+	}
+	
+	/**
+	 * Sets the interrupt status bits, cleared when INT_STATUS is next read
+	 * 
+	 * @param status - The bits to set
+	 */
+	public synchronized void raiseStatus(int status){
+		registers[INT_STATUS] |= status;
+	}
+	
+	/**
+	 * Takes as long as a transaction of the given size would on the bus
+	 */
+	private void transfer(int size){
+		transactions++;
+		bytes += size;
+		
+		if(byteTime > 0){
+			long end = System.nanoTime() + (addressBytes + size) * byteTime;
+			while(System.nanoTime() < end);
+		}
+	}
+	
+	private void writeRegister(int register, byte value){
+		if(register == USER_CTRL && (value & 0b00000100) != 0){//FIFO reset
+			fifoHead = fifoSize = 0;
+		}
+		
+		if(register == PWR_MGMT_1){
+			value &= 0b01111111;//Device reset clears itself
+		}else if(register == USER_CTRL){
+			value &= 0b11111000;//The reset bits clear themselves
+		}
+		
+		if(register != WHO_AM_I && register != INT_STATUS){
+			registers[register] = value;
+		}
+	}
+	
+	private byte readRegister(int register){
+		switch(register){
+		case INT_STATUS:
+			byte status = registers[INT_STATUS];
+			registers[INT_STATUS] = 0;
+			return status;
+		case FIFO_COUNT_H:
+			return (byte)(fifoSize >> 8);
+		case FIFO_COUNT_H + 1:
+			return (byte)fifoSize;
+		case FIFO_R_W:
+			if(fifoSize == 0){
+				return 0;
+			}
+			
+			byte value = fifo[fifoHead];
+			fifoHead = (fifoHead + 1) % fifo.length;
+			fifoSize--;
+			return value;
+		default:
+			return registers[register & 0x7F];
+		}
+	}
+	
+	/**
+	 * The register after the given one in a burst, which stays put on the FIFO
+	 */
+	private static int next(int register){
+		return register == FIFO_R_W ? register : (register + 1) & 0x7F;
+	}
+	
+	private static void putShort(byte[] buffer, int offset, short value){
+		buffer[offset] = (byte)(value >> 8);
+		buffer[offset + 1] = (byte)value;
+	}
+
+	@Override
+	public int getAddress(){
+		return address;
+	}
+
+	@Override
+	public synchronized void write(byte b) throws IOException {
+		transfer(1);
+		pointer = b & 0x7F;
+	}
+
+	@Override
+	public synchronized void write(byte[] buffer, int offset, int size) throws IOException {
+		transfer(size);
+		
+		if(size == 0){
+			return;
+		}
+		
+		//The first byte sets the register, the rest are written from there
+		int register = buffer[offset] & 0x7F;
+		for(int i = 1; i < size; i++){
+			writeRegister(register, buffer[offset + i]);
+			register = next(register);
+		}
+		
+		pointer = register;
+	}
+
+	@Override
+	public void write(byte[] buffer) throws IOException {
+		write(buffer, 0, buffer.length);
+	}
+
+	@Override
+	public synchronized void write(int address, byte b) throws IOException {
+		transfer(1);
+		writeRegister(address & 0x7F, b);
+		pointer = next(address & 0x7F);
+	}
+
+	@Override
+	public synchronized void write(int address, byte[] buffer, int offset, int size) throws IOException {
+		transfer(size);
+		
+		int register = address & 0x7F;
+		for(int i = 0; i < size; i++){
+			writeRegister(register, buffer[offset + i]);
+			register = next(register);
+		}
+		
+		pointer = register;
+	}
+
+	@Override
+	public void write(int address, byte[] buffer) throws IOException {
+		write(address, buffer, 0, buffer.length);
+	}
+
+	@Override
+	public synchronized int read() throws IOException {
+		transfer(1);
+		
+		int value = readRegister(pointer) & 0xFF;
+		pointer = next(pointer);
+		
+		return value;
+	}
+
+	@Override
+	public synchronized int read(byte[] buffer, int offset, int size) throws IOException {
+		transfer(size);
+		
+		for(int i = 0; i < size; i++){
+			buffer[offset + i] = readRegister(pointer);
+			pointer = next(pointer);
+		}
+		
+		return size;
+	}
+
+	@Override
+	public synchronized int read(int address) throws IOException {
+		transfer(1);
+		
+		pointer = next(address & 0x7F);
+		
+		return readRegister(address & 0x7F) & 0xFF;
+	}
+
+	@Override
+	public synchronized int read(int address, byte[] buffer, int offset, int size) throws IOException {
+		pointer = address & 0x7F;
+		
+		return read(buffer, offset, size);
+	}
+
+	@Override
+	public synchronized int read(byte[] writeBuffer, int writeOffset, int writeSize, byte[] readBuffer, int readOffset, int readSize) throws IOException {
+		if(writeSize > 0){
+			pointer = writeBuffer[writeOffset] & 0x7F;
+		}
+		
+		return read(readBuffer, readOffset, readSize);
+	}
+
+	@Override
+	public void ioctl(long command, int value) throws IOException {
+		throw new IOException("ioctl is not supported by the simulated device");
+	}
+
+	@Override
+	public void ioctl(long command, ByteBuffer data, IntBuffer offsets) throws IOException {
+		throw new IOException("ioctl is not supported by the simulated device");
+	}
+	
+	/**
+	 * @return transactions - The number of transactions made with the device
+	 */
+	public synchronized long getTransactions(){
+		return transactions;
+	}
+	
+	/**
+	 * @return bytes - The number of data bytes transferred, not counting addressing
+	 */
+	public synchronized long getBytes(){
+		return bytes;
+	}
+	
+	/**
+	 * Clears the transaction and byte counts
+	 */
+	public synchronized void resetCounts(){
+		transactions = bytes = 0;
+	}
+
+}
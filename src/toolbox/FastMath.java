@@ -0,0 +1,144 @@
+/**
+ * Approximations of the trigonometry used to find the orientation of the sensors,
+ * trading a little accuracy for speed on the rPi's slow cores. The maximum errors
+ * given were measured against Math over the whole input range
+ */
+package toolbox;
+
+public class FastMath {
+
+	private static final int tableSize = 1024;//The number of intervals in each table
+
+	//acos(x) / sqrt(1 - x) on [0, 1], which is smooth (unlike acos) so interpolates well
+	private static final double[] acosTable = new double[tableSize + 2];
+
+	//atan(x) on [0, 1]
+	private static final double[] atanTable = new double[tableSize + 2];
+
+	static {
+		for(int i = 0; i <= tableSize; i++){
+			double x = (double)i / tableSize;
+
+			acosTable[i] = i == tableSize ? Math.sqrt(2) : Math.acos(x) / Math.sqrt(1 - x);
+			atanTable[i] = Math.atan(x);
+		}
+
+		//Padding so that interpolating at exactly 1 stays in bounds
+		acosTable[tableSize + 1] = acosTable[tableSize];
+		atanTable[tableSize + 1] = atanTable[tableSize];
+	}
+
+	/**
+	 * Table driven acos, interpolating linearly between 1024 entries. Maximum error 3e-8 radians
+	 *
+	 * @param x - The cosine, clamped to [-1, 1]
+	 * @return angle - The angle in radians, [0, pi]
+	 */
+	public static double acosTable(double x){
+		boolean negative = x < 0;
+		if(negative) x = -x;
+		if(x > 1) x = 1;
+
+		double position = x * tableSize;
+		int i = (int)position;
+		double f = position - i;
+
+		double angle = Math.sqrt(1 - x) * (acosTable[i] + (acosTable[i + 1] - acosTable[i]) * f);
+
+		return negative ? Math.PI - angle : angle;
+	}
+
+	/**
+	 * Polynomial acos (Abramowitz and Stegun 4.4.45). Maximum error 7e-5 radians
+	 *
+	 * @param x - The cosine, clamped to [-1, 1]
+	 * @return angle - The angle in radians, [0, pi]
+	 */
+	public static double acosPolynomial(double x){
+		boolean negative = x < 0;
+		if(negative) x = -x;
+		if(x > 1) x = 1;
+
+		double angle = Math.sqrt(1 - x) * (1.5707288 + x * (-0.2121144 + x * (0.0742610 + x * -0.0187293)));
+
+		return negative ? Math.PI - angle : angle;
+	}
+
+	/**
+	 * Table driven atan2, interpolating linearly between 1024 entries. Maximum error 8e-8 radians
+	 *
+	 * @param y - The y coordinate
+	 * @param x - The x coordinate
+	 * @return angle - The angle of the point from the x axis in radians, [-pi, pi]
+	 */
+	public static double atan2Table(double y, double x){
+		double ax = Math.abs(x), ay = Math.abs(y);
+		if(ax == 0 && ay == 0){
+			return Math.atan2(y, x);//Keeps the signed zero results
+		}
+
+		double t = ax >= ay ? ay / ax : ax / ay;//Reduced to [0, 1]
+
+		double position = t * tableSize;
+		int i = (int)position;
+		double f = position - i;
+
+		return atan2Octant(atanTable[i] + (atanTable[i + 1] - atanTable[i]) * f, y, x, ax, ay);
+	}
+
+	/**
+	 * Polynomial atan2 (Abramowitz and Stegun 4.4.49). Maximum error 1.2e-5 radians
+	 *
+	 * @param y - The y coordinate
+	 * @param x - The x coordinate
+	 * @return angle - The angle of the point from the x axis in radians, [-pi, pi]
+	 */
+	public static double atan2Polynomial(double y, double x){
+		double ax = Math.abs(x), ay = Math.abs(y);
+		if(ax == 0 && ay == 0){
+			return Math.atan2(y, x);
+		}
+
+		double t = ax >= ay ? ay / ax : ax / ay;
+		double t2 = t * t;
+
+		double angle = t * (0.9998660 + t2 * (-0.3302995 + t2 * (0.1801410 + t2 * (-0.0851330 + t2 * 0.0208351))));
+
+		return atan2Octant(angle, y, x, ax, ay);
+	}
+
+	/**
+	 * Moves an angle in [0, pi / 4] to the octant of the point
+	 */
+	private static double atan2Octant(double angle, double y, double x, double ax, double ay){
+		if(ay > ax) angle = Math.PI / 2 - angle;
+		if(x < 0) angle = Math.PI - angle;
+
+		return y < 0 ? -angle : angle;
+	}
+
+	/**
+	 * Inverse square root from the bit pattern estimate (the "fast inverse square root", with
+	 * the double precision constant) refined by Newton's method. Maximum relative error 1.8e-3
+	 * with 1 iteration, 4.7e-6 with 2 and 3.2e-11 with 3. Like 1 / Math.sqrt, 0 gives infinity and a negative value NaN
+	 *
+	 * @param x - The value
+	 * @param iterations - The number of Newton iterations
+	 * @return inverse - 1 / sqrt(x)
+	 */
+	public static double invSqrt(double x, int iterations){
+		if(x <= 0){//The bit pattern estimate is huge but finite at 0, and meaningless below it
+			return 1 / Math.sqrt(x);
+		}
+
+		double half = 0.5 * x;
+		double y = Double.longBitsToDouble(0x5FE6EB50C7B537A9L - (Double.doubleToRawLongBits(x) >> 1));
+
+		for(int i = 0; i < iterations; i++){
+			y *= 1.5 - half * y * y;
+		}
+
+		return y;
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ * The precision the orientation of a sensor is calculated with. Every mode gives the
+ * same results to within its documented error, so they can be swapped freely:
+ *
+ * EXACT      - Math.acos (clamped), Math.atan2 and 1 / Math.sqrt
+ * TABLE      - interpolated tables, acos within 3e-8 rad, atan2 within 8e-8 rad, inverse sqrt within 3.2e-11 (relative)
+ * POLYNOMIAL - polynomials, acos within 7e-5 rad, atan2 within 1.2e-5 rad, inverse sqrt within 4.7e-6 (relative)
+ *
+ * acos magnifies the error of its input near +-1, where a relative error e in the inverse sqrt becomes an angle
+ * error of sqrt(2e). An orientation found as acos(x * invSqrt(x^2 + y^2 + z^2)) is within 8e-6 rad in TABLE mode
+ * and 3.1e-3 rad (0.18 degrees) in POLYNOMIAL mode, measured over random directions and directions within 1e-8 rad
+ * of an axis. Both are below the whole degree the rotations are shown in
+ *
+ * Every mode's inverse sqrt is infinite at 0 and NaN below it, as 1 / Math.sqrt is, so a sample with no acceleration
+ * at all gives NaN angles in every mode rather than angles that depend on the mode
+ */
+package toolbox;
+
+public enum Precision {
+
+	EXACT {
+		@Override
+		public double acos(double x){
+			return Math.acos(x < -1 ? -1 : (x > 1 ? 1 : x));
+		}
+
+		@Override
+		public double atan2(double y, double x){
+			return Math.atan2(y, x);
+		}
+
+		@Override
+		public double invSqrt(double x){
+			return 1 / Math.sqrt(x);
+		}
+	},
+
+	TABLE {
+		@Override
+		public double acos(double x){
+			return FastMath.acosTable(x);
+		}
+
+		@Override
+		public double atan2(double y, double x){
+			return FastMath.atan2Table(y, x);
+		}
+
+		@Override
+		public double invSqrt(double x){
+			return FastMath.invSqrt(x, 3);
+		}
+	},
+
+	POLYNOMIAL {
+		@Override
+		public double acos(double x){
+			return FastMath.acosPolynomial(x);
+		}
+
+		@Override
+		public double atan2(double y, double x){
+			return FastMath.atan2Polynomial(y, x);
+		}
+
+		@Override
+		public double invSqrt(double x){
+			return FastMath.invSqrt(x, 2);
+		}
+	};
+
+	/**
+	 * @param x - The cosine, clamped to [-1, 1]
+	 * @return angle - The angle in radians, [0, pi]
+	 */
+	public abstract double acos(double x);
+
+	/**
+	 * @param y - The y coordinate
+	 * @param x - The x coordinate
+	 * @return angle - The angle of the point from the x axis in radians, [-pi, pi]
+	 */
+	public abstract double atan2(double y, double x);
+
+	/**
+	 * @param x - The value
+	 * @return inverse - 1 / sqrt(x), infinity for 0 and NaN for a negative value in every mode
+	 */
+	public abstract double invSqrt(double x);
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Tests the low and high pass biquads at 1kHz
+ */
+
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class BiquadTest {
+
+	/**
+	 * @param frequency - A whole number of Hz, so the last second holds whole cycles
+	 * @return amplitude - The amplitude of the output once a unit sine of the frequency has settled through the filter
+	 */
+	private static double amplitude(Filter filter, int frequency){
+		double power = 0;
+
+		for(int i = 0; i < 2000; i++){
+			float output = filter.filter((float)Math.sin(2 * Math.PI * frequency * i / 1000), i * 1_000_000L);
+
+			if(i >= 1000){
+				power += output * output;
+			}
+		}
+
+		return Math.sqrt(2 * power / 1000);
+	}
+
+	@Test
+	public void lowPassStartsSettledOnTheFirstSample(){
+		Filter filter = Biquad.lowPass(1000, 50, Math.sqrt(0.5));
+
+		for(int i = 0; i < 10; i++){
+			assertEquals(0.75f, filter.filter(0.75f, i), 1e-5f);
+		}
+	}
+
+	@Test
+	public void lowPassKeepsSlowSignalsAndStopsFastOnes(){
+		assertEquals(1, amplitude(Biquad.lowPass(1000, 50, Math.sqrt(0.5)), 5), 0.01);
+		assertEquals(Math.sqrt(0.5), amplitude(Biquad.lowPass(1000, 50, Math.sqrt(0.5)), 50), 0.02);
+		assertTrue(amplitude(Biquad.lowPass(1000, 50, Math.sqrt(0.5)), 400) < 0.02);
+	}
+
+	@Test
+	public void highPassRemovesTheSteadyPart(){
+		Filter filter = Biquad.highPass(1000, 5, Math.sqrt(0.5));
+		float output = 0;
+
+		for(int i = 0; i < 2000; i++){
+			output = filter.filter(1, i);
+		}
+
+		assertEquals(0, output, 1e-3f);
+		assertEquals(1, amplitude(Biquad.highPass(1000, 5, Math.sqrt(0.5)), 100), 0.01);
+	}
+
+}
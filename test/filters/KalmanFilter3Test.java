@@ -0,0 +1,106 @@
+/**
+ * Tests the three axis Kalman filter, whole and through the filters of its axes
+ */
+
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class KalmanFilter3Test {
+
+	private static final float processNoise = 1e-3f, measurementNoise = 1e-2f;
+
+	@Test
+	public void matchesAKalmanFilterPerAxis(){
+		KalmanFilter3 vector = new KalmanFilter3(processNoise, measurementNoise);
+		Filter[] axes = {new KalmanFilter(processNoise, measurementNoise), new KalmanFilter(processNoise, measurementNoise), new KalmanFilter(processNoise, measurementNoise)};
+		Random random = new Random(1);
+
+		for(int i = 0; i < 500; i++){
+			if(i == 250){
+				vector.reset();
+				for(Filter axis : axes) axis.reset();
+			}
+
+			float[] sample = {random.nextFloat(), random.nextFloat(), random.nextFloat()};
+			float[] expected = new float[3];
+
+			for(int a = 0; a < 3; a++){
+				expected[a] = axes[a].filter(sample[a], i);
+			}
+
+			vector.filter(sample, i);
+
+			for(int a = 0; a < 3; a++){
+				assertEquals(expected[a], sample[a], 1e-6f, "Sample " + i + " axis " + a);
+			}
+		}
+	}
+
+	@Test
+	public void axesFilterLikeTheWholeVector(){
+		KalmanFilter3 vector = new KalmanFilter3(processNoise, measurementNoise);
+		KalmanFilter3 split = new KalmanFilter3(processNoise, measurementNoise);
+		FilterBank bank = new FilterBank(split.getAxis(0), split.getAxis(1), split.getAxis(2));
+		Random random = new Random(2);
+
+		for(int i = 0; i < 500; i++){
+			if(i == 250){
+				vector.reset();
+				bank.reset();
+			}
+
+			float[] sample = {random.nextFloat(), random.nextFloat(), random.nextFloat()};
+			float[] copy = sample.clone();
+
+			vector.filter(sample, i);
+			bank.filter(copy, i);
+
+			for(int a = 0; a < 3; a++){
+				assertEquals(sample[a], copy[a], "Sample " + i + " axis " + a);
+			}
+		}
+
+		assertEquals(vector.getX(), split.getX());
+		assertEquals(vector.getY(), split.getY());
+		assertEquals(vector.getZ(), split.getZ());
+	}
+
+	@Test
+	public void resetPartWayThroughASampleStartsAgain(){
+		KalmanFilter3 kalman = new KalmanFilter3(processNoise, measurementNoise);
+
+		for(int i = 0; i < 10; i++){
+			kalman.filter(new float[]{1, 1, 1}, i);
+		}
+
+		kalman.getAxis(0).filter(5, 10);//Only x takes its value before the reset
+		kalman.reset();
+
+		//Whichever axis comes first starts the first sample, which sets the estimate outright
+		assertEquals(-3, kalman.getAxis(1).filter(-3, 11));
+		assertEquals(7, kalman.getAxis(0).filter(7, 11));
+		assertEquals(2, kalman.getAxis(2).filter(2, 11));
+	}
+
+	@Test
+	public void axesCanBeChained(){
+		KalmanFilter3 kalman = new KalmanFilter3(processNoise, measurementNoise);
+		Filter x = new FilterChain(new MedianFilter(3), kalman.getAxis(0));
+		Filter y = new FilterChain(new MedianFilter(3), kalman.getAxis(1));
+
+		for(int i = 0; i < 100; i++){
+			x.filter(i == 50 ? 100 : 1, i);//The spike never reaches the Kalman filter
+			y.filter(-1, i);
+		}
+
+		assertEquals(1, kalman.getX(), 1e-4f);
+		assertEquals(-1, kalman.getY(), 1e-4f);
+		assertEquals(0, kalman.getZ(), "An axis that takes no values keeps its estimate");
+	}
+
+}
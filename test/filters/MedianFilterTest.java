@@ -0,0 +1,45 @@
+/**
+ * Tests the median of the last n samples
+ */
+
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class MedianFilterTest {
+
+	@Test
+	public void removesSpikes(){
+		Filter filter = new MedianFilter(5);
+		float[] input = {1, 1, 1, 50, 1, 1, -50, 1, 1};
+
+		for(int i = 0; i < input.length; i++){
+			assertEquals(1, filter.filter(input[i], i));
+		}
+	}
+
+	@Test
+	public void matchesSortingTheWindow(){
+		Filter filter = new MedianFilter(7);
+		Random random = new Random(1);
+		float[] input = new float[500];
+
+		for(int i = 0; i < input.length; i++){
+			input[i] = random.nextInt(20);//Plenty of repeated values
+
+			float[] window = Arrays.copyOfRange(input, Math.max(0, i - 6), i + 1);
+			Arrays.sort(window);
+
+			int middle = window.length / 2;
+			float median = window.length % 2 == 1 ? window[middle] : (window[middle - 1] + window[middle]) / 2;//Until the window fills
+
+			assertEquals(median, filter.filter(input[i], i), "Sample " + i);
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+/**
+ * Tests the running mean of the last n samples
+ */
+
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class MovingAverageTest {
+
+	@Test
+	public void averagesTheSamplesInTheWindow(){
+		Filter filter = new MovingAverage(4);
+
+		assertEquals(1, filter.filter(1, 0));
+		assertEquals(1.5f, filter.filter(2, 1));
+		assertEquals(2, filter.filter(3, 2));
+		assertEquals(2.5f, filter.filter(4, 3));
+		assertEquals(3.5f, filter.filter(5, 4));//The first sample has left the window
+	}
+
+	@Test
+	public void startsAgainOnReset(){
+		Filter filter = new MovingAverage(4);
+
+		filter.filter(100, 0);
+		filter.reset();
+
+		assertEquals(2, filter.filter(2, 1));
+	}
+
+	@Test
+	public void needsAWindow(){
+		assertThrows(IllegalArgumentException.class, () -> new MovingAverage(0));
+	}
+
+}
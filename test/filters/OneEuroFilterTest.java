@@ -0,0 +1,64 @@
+/**
+ * Tests the speed dependent smoothing of the 1 Euro filter
+ */
+
+package filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class OneEuroFilterTest {
+
+	private static final long period = 1_000_000;//1kHz (ns)
+
+	/**
+	 * @return lag - How far the output trails a ramp of the given speed, once it has settled
+	 */
+	private static float lag(float speed){
+		Filter filter = new OneEuroFilter(1.0, 0.5, 1.0);
+		float lag = 0;
+
+		for(int i = 0; i < 2000; i++){
+			float input = speed * i / 1000;
+			lag = input - filter.filter(input, i * period);
+		}
+
+		return lag;
+	}
+
+	@Test
+	public void passesAStillSignal(){
+		Filter filter = new OneEuroFilter(1.0, 0.5, 1.0);
+
+		for(int i = 0; i < 10; i++){
+			assertEquals(0.5f, filter.filter(0.5f, i * period), 1e-6f);
+		}
+	}
+
+	@Test
+	public void lagsLessBehindFastMovements(){
+		float slow = lag(0.1f) / 0.1f;//In seconds
+		float fast = lag(10) / 10;
+
+		assertTrue(fast < slow / 5, "Fast lag " + fast + "s, slow lag " + slow + "s");
+	}
+
+	@Test
+	public void smoothsJitterWhenStill(){
+		Filter filter = new OneEuroFilter(1.0, 0.5, 1.0);
+		float largest = 0;
+
+		for(int i = 0; i < 2000; i++){
+			float output = filter.filter(i % 2 == 0 ? 0.01f : -0.01f, i * period);
+
+			if(i >= 1000){
+				largest = Math.max(largest, Math.abs(output));
+			}
+		}
+
+		assertTrue(largest < 0.001f, "Jitter of " + largest);
+	}
+
+}
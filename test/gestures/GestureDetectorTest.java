@@ -0,0 +1,146 @@
+/**
+ * Replays the GestureRecording GestureBenchmark uses, a 1kHz trace with taps, a double
+ * tap, a shake and a fall in it, and checks every gesture is found within the latency
+ * the detector promises
+ */
+
+package gestures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import gestures.GestureEvent.Orientation;
+import gestures.GestureEvent.Type;
+import simulation.GestureRecording;
+
+public class GestureDetectorTest {
+
+	private static final long ms = 1_000_000;
+	private static final long period = GestureRecording.period;
+
+	//The longest each gesture may take to be reported, from the detector's documentation
+	private static final long tapLatency = 2 * 80 * ms + 300 * ms + period;
+	private static final long doubleTapLatency = 2 * 80 * ms + 300 * ms + 150 * ms + period;
+	private static final long shakeLatency = 600 * ms + period;
+	private static final long freefallLatency = 60 * ms + period;
+
+	private static final GestureRecording recording = new GestureRecording();
+
+	/**
+	 * @return events - Every gesture found in the recording, in the order they were reported
+	 */
+	private static List<GestureEvent> replay(GestureDetector detector){
+		List<GestureEvent> events = new ArrayList<GestureEvent>();
+		detector.addListener(events::add);
+
+		recording.feed(detector, 0);
+
+		return events;
+	}
+
+	private static void assertGesture(GestureEvent event, Type type, long onset, long maxLatency){
+		assertEquals(type, event.getType());
+		assertEquals(onset, event.getOnset(), 20 * ms, event + " started at the wrong time");
+		assertTrue(event.getLatency() >= 0 && event.getLatency() <= maxLatency, event + " took " + event.getLatency() / ms + "ms");
+	}
+
+	@Test
+	public void findsEveryGestureInTheRecording(){
+		List<GestureEvent> gestures = new ArrayList<GestureEvent>();
+
+		for(GestureEvent event : replay(new GestureDetector())){
+			if(event.getType() != Type.ORIENTATION){
+				gestures.add(event);
+			}
+		}
+
+		assertEquals(5, gestures.size(), gestures.toString());
+
+		assertGesture(gestures.get(0), Type.TAP, 1000 * ms, tapLatency);
+		assertGesture(gestures.get(1), Type.TAP, 3000 * ms, tapLatency);
+		assertGesture(gestures.get(2), Type.DOUBLE_TAP, 5000 * ms, doubleTapLatency);
+		assertGesture(gestures.get(3), Type.SHAKE, 7000 * ms, shakeLatency);
+		assertGesture(gestures.get(4), Type.FREEFALL, 9000 * ms, freefallLatency);
+	}
+
+	/**
+	 * Feeds a detector 3s of lying still, with a 10ms tap starting at each of the given times
+	 *
+	 * @return gestures - The taps and double taps found
+	 */
+	private static List<GestureEvent> tap(long... onsets){
+		GestureDetector detector = new GestureDetector();
+		List<GestureEvent> gestures = new ArrayList<GestureEvent>();
+		detector.addListener(event -> {
+			if(event.getType() != Type.ORIENTATION){
+				gestures.add(event);
+			}
+		});
+
+		for(long t = 0; t < 3000 * ms; t += period){
+			boolean spike = false;
+			for(long onset : onsets){
+				spike |= t >= onset && t < onset + 10 * ms;
+			}
+
+			detector.process(0, 0, spike ? 2 : 1, t);
+		}
+
+		return gestures;
+	}
+
+	@Test
+	public void countsASecondTapByWhenItStarts(){
+		//The first tap ends at 1010ms, so the window closes at 1310ms
+		List<GestureEvent> gestures = tap(1000 * ms, 1305 * ms);
+
+		assertEquals(1, gestures.size(), gestures.toString());
+		assertGesture(gestures.get(0), Type.DOUBLE_TAP, 1000 * ms, doubleTapLatency);
+
+		gestures = tap(1000 * ms, 1315 * ms);
+
+		assertEquals(2, gestures.size(), gestures.toString());
+		assertGesture(gestures.get(0), Type.TAP, 1000 * ms, tapLatency);
+		assertGesture(gestures.get(1), Type.TAP, 1315 * ms, tapLatency);
+	}
+
+	@Test
+	public void findsTheOrientationOnceSettled(){
+		GestureDetector detector = new GestureDetector();
+		List<GestureEvent> events = replay(detector);
+
+		GestureEvent first = events.get(0);
+		assertEquals(Type.ORIENTATION, first.getType());
+		assertEquals(Orientation.Z_UP, first.getOrientation());
+		assertTrue(first.getLatency() <= 250 * ms + period);
+		assertEquals(Orientation.Z_UP, detector.getOrientation());
+	}
+
+	@Test
+	public void reportsAHardwareFreefallStraightAway(){
+		GestureDetector detector = new GestureDetector();
+		List<GestureEvent> events = new ArrayList<GestureEvent>();
+		detector.addListener(event -> {
+			if(event.getType() == Type.FREEFALL){
+				events.add(event);
+			}
+		});
+
+		for(int i = 0; i < GestureRecording.samples; i++){
+			detector.process(recording.getX(i), recording.getY(i), recording.getZ(i), i * period);
+
+			if(i == 9010){//The sensor's own detection notices the fall first
+				detector.hardwareStatus(GestureDetector.hardwareFreefall, i * period);
+			}
+		}
+
+		assertEquals(1, events.size(), "The software detection doesn't report it again");
+		assertGesture(events.get(0), Type.FREEFALL, 9000 * ms, 10 * ms + period);
+	}
+
+}
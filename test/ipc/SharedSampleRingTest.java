@@ -0,0 +1,156 @@
+/**
+ * Tests publishing samples through a ring file and reading them back, including a
+ * writer restarting with a different number of slots
+ */
+
+package ipc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SharedSampleRingTest {
+
+	@TempDir
+	Path directory;
+
+	private String path(){
+		return directory.resolve("ring").toString();
+	}
+
+	private static void publish(SharedSampleRing ring, int sensor, int from, int count){
+		for(int i = from; i < from + count; i++){
+			ring.publish(sensor, i, i, i + 0.25f, i + 0.5f, -i, 2 * i, 3 * i);
+		}
+	}
+
+	@Test
+	public void readsEverySampleInOrder() throws IOException {
+		try(SharedSampleRing ring = new SharedSampleRing(path(), 16);
+				SharedSampleReader reader = new SharedSampleReader(path())){
+			Sample sample = new Sample();
+
+			assertFalse(reader.read(sample));
+
+			publish(ring, 7, 0, 10);
+
+			for(int i = 0; i < 10; i++){
+				assertTrue(reader.read(sample));
+
+				assertEquals(i, sample.number);
+				assertEquals(i, sample.timestamp);
+				assertEquals(7, sample.sensor);
+				assertEquals(i + 0.25f, sample.y);
+				assertEquals(3 * i, sample.gamma);
+			}
+
+			assertFalse(reader.read(sample));
+			assertEquals(0, reader.getLost());
+		}
+	}
+
+	@Test
+	public void countsTheSamplesOverwrittenBeforeTheyWereRead() throws IOException {
+		try(SharedSampleRing ring = new SharedSampleRing(path(), 16);
+				SharedSampleReader reader = new SharedSampleReader(path())){
+			Sample sample = new Sample();
+
+			publish(ring, 1, 0, 20);
+
+			int read = 0;
+			while(reader.read(sample)){
+				read++;
+			}
+
+			assertEquals(16, read);
+			assertEquals(4, reader.getLost());
+			assertEquals(19, sample.number);
+		}
+	}
+
+	@Test
+	public void startsFromTheNewestSample() throws IOException {
+		try(SharedSampleRing ring = new SharedSampleRing(path(), 16)){
+			publish(ring, 1, 0, 5);
+
+			try(SharedSampleReader reader = new SharedSampleReader(path())){
+				Sample sample = new Sample();
+
+				assertFalse(reader.read(sample));
+
+				publish(ring, 1, 5, 1);
+
+				assertTrue(reader.read(sample));
+				assertEquals(5, sample.number);
+			}
+		}
+	}
+
+	@Test
+	public void allowsOnlyOneWriter() throws IOException {
+		SharedSampleRing ring = new SharedSampleRing(path(), 16);
+		try {
+			assertThrows(IOException.class, () -> new SharedSampleRing(path(), 16));
+		} finally {
+			ring.close();
+		}
+
+		new SharedSampleRing(path(), 16).close();
+	}
+
+	@Test
+	public void followsAWriterRestartedWithADifferentSize() throws IOException {
+		try(SharedSampleReader reader = open(16)){
+			Sample sample = new Sample();
+
+			for(int slots : new int[]{64, 4}){
+				try(SharedSampleRing ring = new SharedSampleRing(path(), slots)){
+					assertEquals(slots, ring.getSlots());
+					assertFalse(reader.read(sample));
+
+					publish(ring, slots, 0, 3);
+
+					for(int i = 0; i < 3; i++){
+						assertTrue(reader.read(sample));
+						assertEquals(i, sample.number);
+						assertEquals(slots, sample.sensor);
+					}
+
+					assertFalse(reader.read(sample));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens a reader of a ring that has published plenty of samples and been closed
+	 */
+	private SharedSampleReader open(int slots) throws IOException {
+		try(SharedSampleRing ring = new SharedSampleRing(path(), slots)){
+			publish(ring, 0, 0, 100);
+
+			SharedSampleReader reader = new SharedSampleReader(path());
+			while(reader.read(new Sample()));
+
+			return reader;
+		}
+	}
+
+	@Test
+	public void rejectsFilesThatArentRings() throws IOException {
+		try(RandomAccessFile file = new RandomAccessFile(path(), "rw")){
+			file.setLength(4096);
+		}
+
+		assertThrows(IOException.class, () -> new SharedSampleReader(path()));
+	}
+
+}
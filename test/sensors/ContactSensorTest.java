@@ -0,0 +1,141 @@
+/**
+ * Tests debouncing the edges of a contact switch, fed with simulated times and
+ * settled by the tests themselves
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import simulation.BouncePattern;
+
+public class ContactSensorTest {
+
+	private static final long ms = 1_000_000L;
+	private static final long debounce = ContactSensor.defaultDebounce;
+
+	private static final boolean low = false, high = true;
+
+	/**
+	 * Records every press and release as "+time" or "-time"
+	 */
+	private static class Recorder implements ContactListener {
+
+		private final List<String> edges = new ArrayList<String>();
+
+		@Override
+		public synchronized void contactPressed(ContactSensor sensor, long timestamp){
+			edges.add("+" + timestamp);
+		}
+
+		@Override
+		public synchronized void contactReleased(ContactSensor sensor, long timestamp, long duration){
+			edges.add("-" + timestamp);
+		}
+
+		synchronized List<String> getEdges(){
+			return new ArrayList<String>(edges);
+		}
+
+	}
+
+	@Test
+	public void ignoresTheBouncesOfEveryPress(){
+		BouncePattern pattern = new BouncePattern(50, 5, 200_000L, 50 * ms, 50 * ms, 1);
+		ContactSensor sensor = new ContactSensor("Test", debounce, true);
+		Recorder recorder = new Recorder();
+		sensor.addListener(recorder);
+
+		long end = pattern.feed(sensor, 0);
+		sensor.settle(end + debounce);
+
+		assertEquals(50, sensor.getPresses());
+		assertFalse(sensor.isPressed());
+		assertEquals(pattern.size() - 100, sensor.getBounces());
+		assertEquals(100, recorder.getEdges().size());
+		assertEquals(50 * ms, sensor.getLongestPressDuration());
+	}
+
+	@Test
+	public void publishesAReleaseHiddenInTheBouncesOnceTheDebounceTimeEnds(){
+		ContactSensor sensor = new ContactSensor("Test", debounce, true);
+
+		sensor.edge(low, 0);
+		sensor.edge(high, 2 * ms);//Released before the debounce time is over, with no edge after
+
+		sensor.settle(debounce - 1);
+		assertTrue(sensor.isPressed(), "Nothing is settled before the debounce time ends");
+
+		sensor.settle(debounce);
+		assertFalse(sensor.isPressed());
+		assertEquals(2 * ms, sensor.getLastPressDuration());
+	}
+
+	@Test
+	public void onlySettlesWhenTold() throws InterruptedException {
+		ContactSensor sensor = new ContactSensor("Test", debounce, true);
+		long now = System.nanoTime();
+
+		sensor.edge(low, now);
+		sensor.edge(high, now + ms);
+
+		Thread.sleep(4 * debounce / ms);
+		assertTrue(sensor.isPressed(), "A sensor fed edges settled by itself");
+
+		sensor.settle(now + debounce);
+		assertFalse(sensor.isPressed());
+	}
+
+	@Test
+	public void publishesAPressHiddenInTheChatterOfARelease(){
+		ContactSensor sensor = new ContactSensor("Test", debounce, true);
+		Recorder recorder = new Recorder();
+		sensor.addListener(recorder);
+
+		sensor.edge(low, 0);
+		sensor.edge(high, 20 * ms);
+		sensor.edge(low, 21 * ms);
+		sensor.edge(high, 22 * ms);
+		sensor.edge(low, 23 * ms);//Pressed again while the release was still bouncing
+
+		sensor.settle(30 * ms);
+
+		assertTrue(sensor.isPressed());
+		assertEquals(2, sensor.getPresses());
+		assertEquals(3, sensor.getBounces());
+		assertEquals(List.of("+0", "-" + 20 * ms, "+" + 23 * ms), recorder.getEdges());
+	}
+
+	@Test
+	public void catchesUpOnAHiddenEdgeBeforeTheNextEdge(){
+		ContactSensor sensor = new ContactSensor("Test", debounce, true);
+		Recorder recorder = new Recorder();
+		sensor.addListener(recorder);
+
+		sensor.edge(low, 0);
+		sensor.edge(high, ms);
+		sensor.edge(low, 50 * ms);
+
+		assertEquals(List.of("+0", "-" + ms, "+" + 50 * ms), recorder.getEdges());
+	}
+
+	@Test
+	public void ignoresEdgesOnceDeactivated(){
+		ContactSensor sensor = new ContactSensor("Test", debounce, false);
+
+		sensor.edge(high, 0);
+		sensor.deactivate();
+		sensor.edge(low, 50 * ms);
+
+		assertTrue(sensor.isPressed());
+		assertEquals(1, sensor.getPresses());
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Tests configuring an mpu6050 on the simulated bus
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.pi4j.io.i2c.I2CBus;
+import com.pi4j.io.i2c.I2CDevice;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import simulation.SimulatedI2CBus;
+import simulation.SimulatedI2CDevice;
+
+public class MPU6050Test {
+
+	private static final int address = 0x68;
+
+	private static final int FF_THR = 0x1D;
+	private static final int FF_DUR = 0x1E;
+	private static final int INT_ENABLE = 0x38;
+	private static final int INT_STATUS = 0x3A;
+	private static final int ACCEL_XOUT_H = 0x3B;
+	private static final int FIFO_COUNT_H = 0x72;
+	private static final int PWR_MGMT_1 = 0x6B;
+
+	@Test
+	public void wakesTheSensorUp() throws IOException {
+		SimulatedI2CBus bus = new SimulatedI2CBus(1, 0);
+
+		new MPU6050(bus, address, (short)0, (short)0, (short)0);
+
+		assertEquals(0, bus.getSimulatedDevice(address).read(PWR_MGMT_1) & 0b01000000, "Still asleep");
+	}
+
+	@Test
+	public void reconfiguringKeepsTheFreefallInterrupt() throws IOException {
+		SimulatedI2CBus bus = new SimulatedI2CBus(1, 0);
+		SimulatedI2CDevice device = bus.getSimulatedDevice(address);
+		MPU6050 mpu = new MPU6050(bus, address, (short)0, (short)0, (short)0);
+
+		assertTrue(mpu.enableHardwareFreefall());
+		assertEquals(0x80, device.read(INT_ENABLE));
+
+		mpu.reconfigure();
+
+		assertEquals(0x80, device.read(INT_ENABLE));
+	}
+
+	@Test
+	public void restartsTheFifoAfterItOverflows() throws IOException {
+		SimulatedI2CBus bus = new SimulatedI2CBus(1, 0);
+		SimulatedI2CDevice device = bus.getSimulatedDevice(address);
+		MPU6050 mpu = new MPU6050(bus, address, (short)0, (short)0, (short)0);
+		mpu.enableFifo();
+
+		for(int i = 0; i < 200; i++){//More than the 170 samples that fit
+			device.pushFifo((short)i, (short)0, (short)16384);
+		}
+
+		assertEquals(0x10, device.read(INT_STATUS) & 0x10, "No overflow raised");
+		assertEquals(1024, (device.read(FIFO_COUNT_H) << 8) | device.read(FIFO_COUNT_H + 1));
+
+		mpu.poll();
+
+		assertEquals(0, mpu.getHistory().size(), "Samples were read from an overflowed FIFO");
+		assertEquals(0, device.read(FIFO_COUNT_H + 1), "The FIFO wasn't reset");
+
+		for(int i = 0; i < 10; i++){
+			device.pushFifo((short)(1000 + i), (short)0, (short)16384);
+		}
+
+		mpu.poll();
+
+		SampleHistory history = mpu.getHistory();
+		assertEquals(10, history.size());
+		for(int i = 0; i < 10; i++){
+			assertEquals((1000 + i) / 16384f, history.getValue(i, 0), "Sample " + i);
+			assertEquals(1, history.getValue(i, 2));
+		}
+		assertTrue(history.getTimestamp(0) < history.getTimestamp(9));
+	}
+
+	@Test
+	public void recordsFailedReads(@TempDir Path directory) throws IOException {
+		SimulatedI2CDevice device = new SimulatedI2CDevice(address, 0){
+			@Override
+			public synchronized int read(int register, byte[] buffer, int offset, int size) throws IOException {
+				if(register == ACCEL_XOUT_H){
+					throw new IOException("Simulated bus error");
+				}
+
+				return super.read(register, buffer, offset, size);
+			}
+		};
+
+		I2CBus bus = new SimulatedI2CBus(1, 0){
+			@Override
+			public I2CDevice getDevice(int address){
+				return device;
+			}
+		};
+
+		MPU6050 mpu = new MPU6050(bus, address, (short)0, (short)0, (short)0);
+		Path file = directory.resolve("reads.jfr");
+
+		try(Recording recording = new Recording()){
+			recording.enable("pirobotics.I2CTransaction");
+			recording.start();
+			mpu.poll();
+			recording.stop();
+			recording.dump(file);
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		assertEquals(1, events.size());
+		assertEquals(ACCEL_XOUT_H, events.get(0).getInt("register"));
+		assertTrue(events.get(0).getBoolean("failed"));
+	}
+
+	@Test
+	public void fallsBackWithoutFreefallRegisters() throws IOException {
+		//A later revision of the chip, whose freefall registers ignore writes
+		SimulatedI2CDevice device = new SimulatedI2CDevice(address, 0){
+			@Override
+			public synchronized void write(int register, byte[] buffer, int offset, int size) throws IOException {
+				byte[] written = buffer.clone();
+
+				for(int i = 0; i < size; i++){
+					if(register + i == FF_THR || register + i == FF_DUR){
+						written[offset + i] = 0;
+					}
+				}
+
+				super.write(register, written, offset, size);
+			}
+		};
+
+		I2CBus bus = new SimulatedI2CBus(1, 0){
+			@Override
+			public I2CDevice getDevice(int address){
+				return device;
+			}
+		};
+
+		MPU6050 mpu = new MPU6050(bus, address, (short)0, (short)0, (short)0);
+
+		assertFalse(mpu.enableHardwareFreefall());
+		assertEquals(0, device.read(INT_ENABLE));
+
+		mpu.reconfigure();
+
+		assertEquals(0, device.read(INT_ENABLE));
+	}
+
+}
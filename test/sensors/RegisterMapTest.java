@@ -0,0 +1,170 @@
+/**
+ * Tests staging and committing registers against a simulated mpu6050, counting the
+ * transactions each commit makes
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import simulation.SimulatedI2CDevice;
+
+public class RegisterMapTest {
+
+	private static final int SMPLRT_DIV = 0x19;
+	private static final int CONFIG = 0x1A;
+	private static final int GYRO_CONFIG = 0x1B;
+	private static final int ACCEL_CONFIG = 0x1C;
+	private static final int INT_STATUS = 0x3A;
+	private static final int PWR_MGMT_1 = 0x6B;
+	private static final int WHO_AM_I = 0x75;
+
+	/**
+	 * Remembers the first register of every burst written
+	 */
+	private static class RecordingDevice extends SimulatedI2CDevice {
+
+		private final List<Integer> bursts = new ArrayList<Integer>();
+
+		RecordingDevice(){
+			super(0x68, 0);
+		}
+
+		@Override
+		public synchronized void write(int address, byte[] buffer, int offset, int size) throws IOException {
+			bursts.add(address);
+			super.write(address, buffer, offset, size);
+		}
+
+	}
+
+	private RecordingDevice device;
+	private RegisterMap registers;
+
+	@BeforeEach
+	public void setup(){
+		device = new RecordingDevice();
+		registers = new RegisterMap(0x80);
+	}
+
+	@Test
+	public void writesNeighbouringRegistersInOneBurst() throws IOException {
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(CONFIG, (byte)2);
+		registers.stage(GYRO_CONFIG, (byte)3);
+
+		assertEquals(2, registers.commit(device));//One write, one validating read
+		assertEquals(List.of(SMPLRT_DIV), device.bursts);
+		assertEquals(2, device.read(CONFIG));
+		assertTrue(registers.isKnown(GYRO_CONFIG));
+		assertEquals(3, registers.get(GYRO_CONFIG));
+	}
+
+	@Test
+	public void onlyWritesRegistersThatChanged() throws IOException {
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(CONFIG, (byte)2);
+		registers.commit(device);
+		device.bursts.clear();
+
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(CONFIG, (byte)2);
+		assertEquals(0, registers.commit(device));
+
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(CONFIG, (byte)4);
+		assertEquals(2, registers.commit(device));
+		assertEquals(List.of(CONFIG), device.bursts);
+	}
+
+	@Test
+	public void sendsBurstsInTheOrderTheyWereStaged() throws IOException {
+		registers.stage(PWR_MGMT_1, (byte)0);
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(CONFIG, (byte)2);
+
+		registers.commit(device);
+
+		assertEquals(List.of(PWR_MGMT_1, SMPLRT_DIV), device.bursts);
+	}
+
+	@Test
+	public void readsThroughSmallGapsWhenValidating() throws IOException {
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(ACCEL_CONFIG, (byte)2);
+		assertEquals(3, registers.commit(device));//Two writes, one read through the gap
+
+		registers.setMaxReadGap(0);
+		registers.stage(SMPLRT_DIV, (byte)5);
+		registers.stage(ACCEL_CONFIG, (byte)6);
+		assertEquals(4, registers.commit(device));
+	}
+
+	@Test
+	public void neverReadsUnreadableRegisters() throws IOException {
+		registers.setUnreadable(INT_STATUS);
+		device.raiseStatus(0x10);
+
+		registers.stage(INT_STATUS, (byte)0);
+
+		assertEquals(1, registers.commit(device));
+		assertEquals(0x10, device.read(INT_STATUS), "The status wasn't cleared by a validating read");
+	}
+
+	@Test
+	public void alwaysWritesSelfClearingBits() throws IOException {
+		registers.setSelfClearing(PWR_MGMT_1, 0b10000000);
+
+		registers.stage(PWR_MGMT_1, (byte)0b10000000);
+		assertEquals(2, registers.commit(device));
+		assertEquals(0, registers.get(PWR_MGMT_1));
+
+		registers.stage(PWR_MGMT_1, (byte)0b10000000);
+		assertEquals(2, registers.commit(device));
+	}
+
+	@Test
+	public void dropsAFailedBatch() throws IOException {
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.stage(WHO_AM_I, (byte)0x12);//Read only, so it won't read back
+
+		assertThrows(IOException.class, () -> registers.commit(device));
+		assertFalse(registers.isKnown(SMPLRT_DIV));
+		assertFalse(registers.isKnown(WHO_AM_I));
+
+		device.bursts.clear();
+		assertEquals(0, registers.commit(device), "The failed batch is no longer staged");
+		assertTrue(device.bursts.isEmpty());
+
+		registers.stage(SMPLRT_DIV, (byte)1);
+		assertEquals(2, registers.commit(device), "Registers of a failed batch are written again");
+	}
+
+	@Test
+	public void invalidateWritesEverythingAgain() throws IOException {
+		registers.stage(SMPLRT_DIV, (byte)1);
+		registers.commit(device);
+
+		registers.invalidate();
+		registers.stage(SMPLRT_DIV, (byte)1);
+
+		assertEquals(2, registers.commit(device));
+	}
+
+	@Test
+	public void formatsBytesAsBinary(){
+		assertEquals("10000001", RegisterMap.formatBinary((byte)0x81));
+		assertEquals("00000000", RegisterMap.formatBinary((byte)0));
+	}
+
+}
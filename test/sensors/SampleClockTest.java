@@ -0,0 +1,80 @@
+/**
+ * Tests reconstructing the timestamps of samples read in batches from a drifting sensor
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleClockTest {
+
+	private static final double nominalPeriod = 1_000_000;//1kHz (ns)
+
+	@Test
+	public void endsTheFirstBatchAtTheReadTime(){
+		SampleClock clock = new SampleClock(nominalPeriod);
+		long[] timestamps = new long[4];
+
+		clock.reconstruct(10_000_000, 4, timestamps);
+
+		for(int i = 0; i < 4; i++){
+			assertEquals(10_000_000 - (3 - i) * 1_000_000, timestamps[i]);
+		}
+	}
+
+	@Test
+	public void learnsTheDriftOfTheSensorOscillator(){
+		double period = 1_010_000;//The sensor runs 1% slow
+		SampleClock clock = new SampleClock(nominalPeriod);
+		long[] timestamps = new long[10];
+
+		long previous = Long.MIN_VALUE;
+		long readTime = 0;
+
+		for(int batch = 1; batch <= 500; batch++){
+			readTime = (long)(batch * 10 * period) + (batch % 3) * 200_000;//Reads land a little after the samples
+
+			clock.reconstruct(readTime, 10, timestamps);
+
+			for(long timestamp : timestamps){
+				assertTrue(timestamp > previous, "Timestamps must increase");
+				previous = timestamp;
+			}
+		}
+
+		assertEquals(period, clock.getPeriod(), period * 1e-3);
+		assertEquals(10_000, clock.getDrift(), 1_000);
+		assertEquals(readTime, previous, 4 * period, "The timeline should follow the read times");
+	}
+
+	@Test
+	public void restartsTheTimelineAfterAStall(){
+		SampleClock clock = new SampleClock(nominalPeriod);
+		long[] timestamps = new long[10];
+
+		clock.reconstruct(10_000_000, 10, timestamps);
+		clock.reconstruct(20_000_000, 10, timestamps);
+
+		//Samples lost while the reads stalled for a second
+		clock.reconstruct(1_020_000_000, 10, timestamps);
+
+		assertEquals(1_020_000_000, timestamps[9]);
+		assertEquals(1_011_000_000, timestamps[0]);
+	}
+
+	@Test
+	public void ignoresUnbelievableDrift(){
+		SampleClock clock = new SampleClock(nominalPeriod);
+		long[] timestamps = new long[10];
+
+		for(int batch = 1; batch <= 300; batch++){
+			clock.reconstruct(batch * 12_000_000L, 10, timestamps);//20% slow
+		}
+
+		assertEquals(nominalPeriod, clock.getPeriod());
+	}
+
+}
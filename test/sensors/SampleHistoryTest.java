@@ -0,0 +1,62 @@
+/**
+ * Tests the ring buffer of timestamped samples
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleHistoryTest {
+
+	@Test
+	public void keepsTheNewestSamplesOnceFull(){
+		SampleHistory history = new SampleHistory(4, 3);
+
+		for(int i = 0; i < 6; i++){
+			history.add(i * 10, i, -i, 2 * i);
+		}
+
+		assertEquals(4, history.size());
+		assertEquals(20, history.getOldestTimestamp());
+		assertEquals(50, history.getNewestTimestamp());
+
+		for(int i = 0; i < 4; i++){
+			assertEquals((i + 2) * 10, history.getTimestamp(i));
+			assertEquals(i + 2, history.getValue(i, 0));
+			assertEquals(-(i + 2), history.getValue(i, 1));
+			assertEquals(2 * (i + 2), history.getValue(i, 2));
+		}
+	}
+
+	@Test
+	public void takesOnlyItsChannelsFromAnArray(){
+		SampleHistory history = new SampleHistory(2, 2);
+
+		history.add(1, new float[]{1, 2, 3});
+
+		assertEquals(1, history.size());
+		assertEquals(1, history.getValue(0, 0));
+		assertEquals(2, history.getValue(0, 1));
+	}
+
+	@Test
+	public void clearEmptiesTheHistory(){
+		SampleHistory history = new SampleHistory(4, 1);
+
+		history.add(1, 1, 0, 0);
+		history.clear();
+
+		assertEquals(0, history.size());
+		assertThrows(IndexOutOfBoundsException.class, () -> history.getTimestamp(0));
+	}
+
+	@Test
+	public void rejectsHistoriesTooSmallToInterpolate(){
+		assertThrows(IllegalArgumentException.class, () -> new SampleHistory(1, 3));
+		assertThrows(IllegalArgumentException.class, () -> new SampleHistory(4, 0));
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * Tests merging the histories of several sensors onto a common time grid
+ */
+
+package sensors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SampleMergerTest {
+
+	/**
+	 * A history whose single channel holds the time each sample was taken
+	 */
+	private static SampleHistory ramp(long start, long step, int count){
+		SampleHistory history = new SampleHistory(count, 1);
+
+		for(int i = 0; i < count; i++){
+			long t = start + i * step;
+			history.add(t, t, 0, 0);
+		}
+
+		return history;
+	}
+
+	@Test
+	public void findsTheWindowEverySourceCovers(){
+		SampleHistory[] sources = {ramp(0, 10, 5), ramp(5, 10, 5)};
+		long[] window = new long[2];
+
+		assertTrue(SampleMerger.commonWindow(sources, window));
+		assertArrayEquals(new long[]{5, 40}, window);
+	}
+
+	@Test
+	public void reportsSourcesThatDontOverlap(){
+		SampleHistory[] sources = {ramp(0, 10, 3), ramp(100, 10, 3)};
+
+		assertFalse(SampleMerger.commonWindow(sources, new long[2]));
+		assertFalse(SampleMerger.commonWindow(new SampleHistory[]{new SampleHistory(2, 1)}, new long[2]));
+	}
+
+	@Test
+	public void interpolatesEverySourceOntoTheGrid(){
+		SampleHistory a = ramp(0, 10, 5);
+		SampleHistory b = new SampleHistory(4, 2);
+		b.add(5, 5, -5, 0);
+		b.add(15, 15, -15, 0);
+		b.add(25, 25, -25, 0);
+		b.add(35, 35, -35, 0);
+
+		float[] out = new float[4 * 3];
+		int stride = SampleMerger.merge(new SampleHistory[]{a, b}, 5, 7, 4, out);
+
+		assertEquals(3, stride);
+
+		for(int k = 0; k < 4; k++){
+			float t = 5 + 7 * k;
+
+			assertEquals(t, out[k * stride], 1e-4f);
+			assertEquals(t, out[k * stride + 1], 1e-4f);
+			assertEquals(-t, out[k * stride + 2], 1e-4f);
+		}
+	}
+
+	@Test
+	public void holdsTheNearestSampleOutsideAHistory(){
+		float[] out = new float[3];
+
+		SampleMerger.merge(new SampleHistory[]{ramp(10, 10, 3)}, 0, 20, 3, out);
+
+		assertArrayEquals(new float[]{10, 20, 30}, out);
+	}
+
+	@Test
+	public void fillsEmptySourcesWithNaN(){
+		float[] out = new float[2];
+
+		SampleMerger.merge(new SampleHistory[]{new SampleHistory(2, 1)}, 0, 1, 2, out);
+
+		assertTrue(Float.isNaN(out[0]) && Float.isNaN(out[1]));
+	}
+
+}
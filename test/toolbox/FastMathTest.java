@@ -0,0 +1,78 @@
+/**
+ * Checks the approximations against Math to within their documented errors
+ */
+
+package toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class FastMathTest {
+
+	private static final int steps = 1_000_000;
+
+	@Test
+	public void acosIsWithinItsBounds(){
+		double table = 0, polynomial = 0;
+
+		for(int i = 0; i <= steps; i++){
+			double x = -1 + 2.0 * i / steps;
+			double exact = Math.acos(x);
+
+			table = Math.max(table, Math.abs(FastMath.acosTable(x) - exact));
+			polynomial = Math.max(polynomial, Math.abs(FastMath.acosPolynomial(x) - exact));
+		}
+
+		assertTrue(table <= 3e-8, "Table error " + table);
+		assertTrue(polynomial <= 7e-5, "Polynomial error " + polynomial);
+	}
+
+	@Test
+	public void acosClampsItsInput(){
+		assertEquals(0, FastMath.acosTable(1.5), 1e-12);
+		assertEquals(Math.PI, FastMath.acosTable(-1.5), 1e-12);
+		assertEquals(0, FastMath.acosPolynomial(1.5), 1e-12);
+		assertEquals(Math.PI, FastMath.acosPolynomial(-1.5), 1e-4);
+	}
+
+	@Test
+	public void atan2IsWithinItsBoundsInEveryOctant(){
+		double table = 0, polynomial = 0;
+
+		for(int i = 0; i < steps; i++){
+			double angle = -Math.PI + 2 * Math.PI * i / steps;
+			double radius = 0.5 + (i % 7);
+			double y = radius * Math.sin(angle), x = radius * Math.cos(angle);
+			double exact = Math.atan2(y, x);
+
+			table = Math.max(table, Math.abs(FastMath.atan2Table(y, x) - exact));
+			polynomial = Math.max(polynomial, Math.abs(FastMath.atan2Polynomial(y, x) - exact));
+		}
+
+		assertTrue(table <= 8e-8, "Table error " + table);
+		assertTrue(polynomial <= 1.2e-5, "Polynomial error " + polynomial);
+	}
+
+	@Test
+	public void invSqrtIsWithinItsRelativeBounds(){
+		double[] bounds = {1.8e-3, 4.7e-6, 3.2e-11};
+		Random random = new Random(1);
+
+		for(int iterations = 1; iterations <= 3; iterations++){
+			double error = 0;
+
+			for(int i = 0; i < steps; i++){
+				double x = i < steps / 2 ? 1 + 3.0 * i / (steps / 2) : Math.exp(random.nextDouble() * 40 - 20);//A whole period of the estimate, then any size
+
+				error = Math.max(error, Math.abs(FastMath.invSqrt(x, iterations) * Math.sqrt(x) - 1));
+			}
+
+			assertTrue(error <= bounds[iterations - 1], iterations + " iteration(s), error " + error);
+		}
+	}
+
+}
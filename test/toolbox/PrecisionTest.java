@@ -0,0 +1,83 @@
+/**
+ * Checks the orientation found in each precision mode against the exact one, over
+ * random directions and directions close to an axis, where acos magnifies errors most
+ */
+
+package toolbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PrecisionTest {
+
+	/**
+	 * @return error - The largest error of the angle from the x axis, found as the sensor finds it
+	 */
+	private static double orientationError(Precision precision){
+		Random random = new Random(7);
+		double error = 0;
+
+		for(int i = 0; i < 2_000_000; i++){
+			double x, y, z;
+
+			if(i % 2 == 0){
+				x = random.nextGaussian();
+				y = random.nextGaussian();
+				z = random.nextGaussian();
+			}else{//Within 1e-8 of the x axis
+				double spread = Math.pow(10, -8 * random.nextDouble());
+				x = (random.nextBoolean() ? 1 : -1) * (0.5 + random.nextDouble());
+				y = spread * x * random.nextGaussian();
+				z = spread * x * random.nextGaussian();
+			}
+
+			double squared = x * x + y * y + z * z;
+			double exact = Math.acos(Math.max(-1, Math.min(1, x / Math.sqrt(squared))));
+
+			error = Math.max(error, Math.abs(precision.acos(x * precision.invSqrt(squared)) - exact));
+		}
+
+		return error;
+	}
+
+	@Test
+	public void exactIsExact(){
+		assertTrue(orientationError(Precision.EXACT) <= 1e-7);
+	}
+
+	@Test
+	public void tableIsWithinItsBound(){
+		double error = orientationError(Precision.TABLE);
+
+		assertTrue(error <= 8e-6, "Error " + error);
+	}
+
+	@Test
+	public void polynomialIsWithinItsBound(){
+		double error = orientationError(Precision.POLYNOMIAL);
+
+		assertTrue(error <= 3.1e-3, "Error " + error);
+	}
+
+	@Test
+	public void everyModeAgreesAtZeroAcceleration(){
+		for(Precision precision : Precision.values()){
+			assertEquals(Double.POSITIVE_INFINITY, precision.invSqrt(0), precision.name());
+			assertTrue(Double.isNaN(precision.invSqrt(-1)), precision.name());
+			assertTrue(Double.isNaN(precision.acos(0 * precision.invSqrt(0))), precision.name());
+		}
+	}
+
+	@Test
+	public void everyModeClampsItsCosine(){
+		for(Precision precision : Precision.values()){
+			assertEquals(0, precision.acos(1.0000001), 1e-12, precision.name());
+			assertEquals(Math.PI, precision.acos(-1.0000001), 1e-4, precision.name());
+		}
+	}
+
+}